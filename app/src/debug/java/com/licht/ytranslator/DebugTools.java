@@ -0,0 +1,49 @@
+package com.licht.ytranslator;
+
+import android.app.Application;
+
+import com.facebook.stetho.Stetho;
+import com.licht.ytranslator.data.sources.RealmStatsDumperPlugin;
+import com.licht.ytranslator.di.component.AppComponent;
+import com.licht.ytranslator.utils.StartupTrace;
+import com.uphyca.stetho_realm.RealmInspectorModulesProvider;
+
+/**
+ * Инструменты разработчика отладочной сборки.
+ * В release-сборке используется пустая реализация (src/release), и Stetho в неё не входит
+ */
+final class DebugTools {
+    private DebugTools() {
+    }
+
+    static void initialize(Application application, AppComponent appComponent) {
+        final long startTime = StartupTrace.begin("DebugTools.initialize");
+
+        // Инициируем библиотеку, которая позволяет смотреть содержимое базы данных
+        // с помощью инструментов разработчика в Google Chrome
+        // Через dumpapp также доступна статистика открытых экземпляров Realm (команда realm-stats)
+        // и статистика кэшей и запросов (команда stats). Объекты для статистики получаются
+        // из графа зависимостей при выполнении команды, чтоб не создавать их при запуске
+        Stetho.initialize(
+                Stetho.newInitializerBuilder(application)
+                        .enableDumpapp(() -> new Stetho.DefaultDumperPluginsBuilder(application)
+                                .provide(new RealmStatsDumperPlugin(appComponent.realmInstanceManager()))
+                                .provide(new StatsDumperPlugin()
+                                        .add("http-cache", () -> appComponent.httpDiskCache().getStatsDescription())
+                                        .add("translation-cache", () -> appComponent.dataManager()
+                                                .getTranslationCache().getStatsDescription())
+                                        .add("translate-loader", () -> appComponent.translateLoader()
+                                                .getStatsDescription())
+                                        .add("single-flight", () -> appComponent.dataManager()
+                                                .getSingleFlight().getStatsDescription())
+                                        .add("translation-staging", () -> appComponent.dataManager()
+                                                .getTranslationStaging().getStatsDescription())
+                                        .add("write-queue", () -> appComponent.dataManager()
+                                                .getWriteQueue().getStatsDescription()))
+                                .finish())
+                        .enableWebKitInspector(RealmInspectorModulesProvider.builder(application).build())
+                        .build());
+
+        StartupTrace.end("DebugTools.initialize", startTime);
+    }
+}
@@ -0,0 +1,73 @@
+package com.licht.ytranslator;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.stetho.dumpapp.DumperContext;
+import com.facebook.stetho.dumpapp.DumperPlugin;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Выводит статистику кэшей и запросов через dumpapp (Stetho):
+ *
+ *     ./dumpapp stats
+ *
+ * Счётчики многих объектов изменяются только в главном потоке, поэтому статистика
+ * собирается в нём, а dumpapp ожидает её в своём потоке.
+ */
+class StatsDumperPlugin implements DumperPlugin {
+    private static final String NAME = "stats";
+
+    /**
+     * Источник статистики. Вызывается в главном потоке
+     */
+    interface Source {
+        String getStatsDescription();
+    }
+
+    private final Map<String, Source> mSources = new LinkedHashMap<>();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param section Название раздела статистики
+     * @param source  Источник статистики раздела
+     */
+    StatsDumperPlugin add(String section, Source source) {
+        mSources.put(section, source);
+        return this;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void dump(DumperContext dumpContext) {
+        final FutureTask<String> task = new FutureTask<>(this::describe);
+        mHandler.post(task);
+
+        final PrintStream stdout = dumpContext.getStdout();
+        try {
+            stdout.print(task.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace(dumpContext.getStderr());
+        }
+    }
+
+    private String describe() {
+        final StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Source> entry : mSources.entrySet())
+            builder.append("[").append(entry.getKey()).append("]\n")
+                    .append(entry.getValue().getStatsDescription());
+        return builder.toString();
+    }
+}
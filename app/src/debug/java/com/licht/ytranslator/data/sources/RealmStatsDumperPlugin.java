@@ -0,0 +1,29 @@
+package com.licht.ytranslator.data.sources;
+
+import com.facebook.stetho.dumpapp.DumperContext;
+import com.facebook.stetho.dumpapp.DumperPlugin;
+
+/**
+ * Выводит состояние экземпляров Realm через dumpapp (Stetho):
+ *
+ *     ./dumpapp realm-stats
+ */
+public class RealmStatsDumperPlugin implements DumperPlugin {
+    private static final String NAME = "realm-stats";
+
+    private final RealmInstanceManager mRealmInstanceManager;
+
+    public RealmStatsDumperPlugin(RealmInstanceManager realmInstanceManager) {
+        mRealmInstanceManager = realmInstanceManager;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void dump(DumperContext dumpContext) {
+        dumpContext.getStdout().print(mRealmInstanceManager.getStatsDescription());
+    }
+}
@@ -9,6 +9,7 @@ import com.licht.ytranslator.di.module.ApplicationModule;
 import com.licht.ytranslator.di.module.BusinessModule;
 import com.licht.ytranslator.di.module.DataModule;
 import com.licht.ytranslator.di.module.NetworkModule;
+import com.licht.ytranslator.utils.StartupTrace;
 
 public class YTransApp extends Application {
     private static YTransApp instance;
@@ -21,6 +22,8 @@ public class YTransApp extends Application {
 
     @Override
     public void onCreate() {
+        StartupTrace.start();
+        final long startTime = StartupTrace.begin("YTransApp.onCreate");
         super.onCreate();
         instance = this;
 
@@ -32,6 +35,11 @@ public class YTransApp extends Application {
                 .businessModule(new BusinessModule())
                 .networkModule(new NetworkModule())
                 .dataModule(new DataModule()).build();
+
+        // Инструменты разработчика подключаются только в отладочной сборке (см. src/debug)
+        DebugTools.initialize(this, appComponent);
+
+        StartupTrace.end("YTransApp.onCreate", startTime);
     }
 
     public static AppComponent getAppComponent() {
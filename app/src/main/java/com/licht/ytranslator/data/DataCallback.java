@@ -0,0 +1,11 @@
+package com.licht.ytranslator.data;
+
+/**
+ * Callback, через который возвращается результат асинхронного обращения к данным.
+ * Вызывается в главном потоке.
+ *
+ * @param <T> Тип возвращаемого результата
+ */
+public interface DataCallback<T> {
+    void onResult(T result);
+}
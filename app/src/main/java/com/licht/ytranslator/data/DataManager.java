@@ -1,31 +1,59 @@
 package com.licht.ytranslator.data;
 
+import android.support.annotation.Nullable;
+import android.util.Log;
+
 import com.google.gson.JsonObject;
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.endpoint.SingleFlight;
 import com.licht.ytranslator.data.endpoint.YandexDictionaryAPI;
 import com.licht.ytranslator.data.endpoint.YandexTranslateAPI;
 import com.licht.ytranslator.data.model.HistoryObject;
 import com.licht.ytranslator.data.model.Localization;
 import com.licht.ytranslator.data.model.Result;
 import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.DictionaryResult;
 import com.licht.ytranslator.data.model.WordObject;
+import com.licht.ytranslator.data.sources.BundledLanguages;
 import com.licht.ytranslator.data.sources.CacheData;
+import com.licht.ytranslator.data.sources.CacheEvictionReport;
+import com.licht.ytranslator.data.sources.CacheEvictor;
 import com.licht.ytranslator.data.sources.CachedPreferences;
+import com.licht.ytranslator.data.sources.HistoryJournal;
 import com.licht.ytranslator.utils.LocalizationUtils;
+import com.licht.ytranslator.utils.StartupTrace;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
 /**
  * Реализует паттерн "Фасад", инкапсулирая работу со всеми возможными источниками данных
  */
 public class DataManager {
+    private static final String TAG = "DataManager";
+
+    // Максимальный размер переводов, хранимых в оперативной памяти
+    private static final long TRANSLATION_MEMORY_CACHE_SIZE_BYTES = 256 * 1024;
+
+    // Количество промежуточных переводов (полученных во время набора текста), ожидающих записи
+    private static final int STAGED_TRANSLATIONS_CAPACITY = 16;
+
+    // Названия методов API, используемые в ключах объединяемых запросов
+    private static final String ENDPOINT_TRANSLATE = "translate";
+    private static final String ENDPOINT_TRANSLATE_BATCH = "translateBatch";
+    private static final String ENDPOINT_LOOKUP = "lookup";
+    private static final String ENDPOINT_GET_LANGS = "getLangs";
+
+    // Через сколько новых словарных статей проверяется размер кэша словарных статей
+    private static final int DICTIONARY_BUDGET_CHECK_INTERVAL = 20;
 
     /*
      * Для работы с сетью используется библиотека Retrofit. Она была выбрана из-за того
@@ -40,6 +68,9 @@ public class DataManager {
     // API Яндекс словаря
     private final YandexDictionaryAPI yandexDictionaryAPI;
 
+    // Одинаковые одновременно выполняющиеся запросы к API объединяются в один
+    private final SingleFlight singleFlight = new SingleFlight();
+
     /*
      * Данные, хранящиеся в базе данных
      *
@@ -51,6 +82,10 @@ public class DataManager {
      */
     private final CacheData cacheData;
 
+    // Все обращения к базе данных из UI выполняются через этот объект в фоновых потоках,
+    // чтоб не блокировать главный поток дисковыми операциями
+    private final DatabaseExecutor databaseExecutor;
+
     /**
      * Здесь (и в других местах) в качестве постоянной памяти используются Shared Preferences потому,
      * что в этих случаях получать значения по ключу (из key-value баз данных) удобнее, чем писать SQL запросы
@@ -59,14 +94,42 @@ public class DataManager {
     // Информация, о кэшировании различных локализаций приложения
     private final CachedPreferences cachedPreferences;
 
-    // Список доступных для перевода языков.
+    // Справочник доступных для перевода языков.
     // Хранится в оперативной памяти, чтоб каждый раз не ходить в базу данных для их получения
-    private Localization[] mLocalizations = null;
+    // Справочник неизменяемый, при обновлении данных он целиком заменяется новым
+    private volatile LanguageCatalog mLanguageCatalog = null;
+
+    // Построен ли справочник из списка, поставляемого с приложением. Такой справочник
+    // заменяется сохранённым в базе данных, когда тот будет прочитан. Используется в главном потоке
+    private boolean mIsBundledCatalog = false;
+
+    // Запущено ли обновление справочника языков из сети. Справочник обновляется раз за запуск
+    private boolean mIsCatalogRefreshStarted = false;
 
-    // Переводы, которые были добавлены в историю
-    // Хранятся в оперативной памяти для того, чтоб быстро, без подгрузок, открывать экраны истории
-    // переводов и списка избранных переводов.
-    private List<HistoryObject> historyObjectsCache;
+    // Кэш переводов в памяти поверх базы данных. Через него выполняется поиск перевода
+    // на каждое изменение текста, поэтому повторные запросы не обращаются к базе данных
+    private final TranslationCache translationCache;
+
+    // Изменения кэша переводов, истории и словарных статей записываются в базу данных
+    // отложенно, пачками, одной транзакцией на пачку
+    private final HistoryWriteQueue writeQueue;
+
+    // Переводы, полученные во время набора текста. В очередь записи попадают только те из них,
+    // с которыми пользователь начал работать
+    private final TranslationStaging translationStaging = new TranslationStaging(STAGED_TRANSLATIONS_CAPACITY);
+
+    // Количество переводов на странице списка истории
+    private final int mHistoryPageSize;
+
+    // Очищает кэш в базе данных небольшими транзакциями
+    private final CacheEvictor cacheEvictor;
+
+    // Результат последней очистки кэша (null, если очистка ещё не закончилась)
+    private CacheEvictionReport mLastEvictionReport = null;
+
+    // Выполняется ли очистка кэша, и сколько словарных статей было добавлено в кэш с последней очистки
+    private boolean mIsEvictionRunning = false;
+    private int mDictionariesSinceEviction = 0;
 
     /**
      * Используемая локализация UI
@@ -76,17 +139,50 @@ public class DataManager {
     public DataManager(YandexTranslateAPI yandexTranslateAPI,
                        YandexDictionaryAPI yandexDictionaryAPI,
                        CacheData cacheData,
-                       CachedPreferences cachedPreferences) {
+                       DatabaseExecutor databaseExecutor,
+                       CachedPreferences cachedPreferences,
+                       HistoryJournal historyJournal,
+                       CacheEvictor cacheEvictor) {
         super();
+        final long startTime = StartupTrace.begin("DataManager.<init>");
 
         this.yandexTranslateAPI = yandexTranslateAPI;
         this.yandexDictionaryAPI = yandexDictionaryAPI;
         this.cacheData = cacheData;
+        this.databaseExecutor = databaseExecutor;
         this.cachedPreferences = cachedPreferences;
+        this.cacheEvictor = cacheEvictor;
+        this.translationCache = new TranslationCache(cacheData, databaseExecutor,
+                TRANSLATION_MEMORY_CACHE_SIZE_BYTES);
+        this.writeQueue = new HistoryWriteQueue(cacheData, databaseExecutor, historyJournal,
+                this::onHistoryWritten);
 
         mLocalSymbol = LocalizationUtils.getCurrentLocalizationSymbol();
-        checkCachedLocalizations();
-        historyObjectsCache = cacheData.getHistoryWords();
+        mHistoryPageSize = YTransApp.get().getResources().getInteger(R.integer.history_page_size);
+
+        // Справочник языков читается из базы данных в фоновом потоке. Если он ещё не сохранён,
+        // то там же строится справочник из списка, поставляемого с приложением. В главном потоке
+        // список из приложения читается, только если справочник понадобился до окончания чтения
+        databaseExecutor.read(this::loadCachedLanguageCatalog, catalog -> {
+            if (catalog != null) {
+                if (mLanguageCatalog == null || mIsBundledCatalog) {
+                    mLanguageCatalog = catalog;
+                    mIsBundledCatalog = false;
+                }
+            } else if (mLanguageCatalog == null) {
+                databaseExecutor.read(this::loadBundledLanguageCatalog, bundledCatalog -> {
+                    if (bundledCatalog != null && mLanguageCatalog == null) {
+                        mLanguageCatalog = bundledCatalog;
+                        mIsBundledCatalog = true;
+                    }
+                });
+            }
+        });
+
+        // Изменения, не записанные из-за завершения процесса, записываются до чтения истории
+        writeQueue.recover();
+
+        StartupTrace.end("DataManager.<init>", startTime);
     }
 
     /*
@@ -94,7 +190,8 @@ public class DataManager {
      */
 
     /**
-     * Получает перевод текста в указанном направлении через API Яндекс Словаря
+     * Получает перевод текста в указанном направлении через API Яндекс Словаря.
+     * Каждый объединённый запрос получает свою копию словарной статьи: статья изменяемая
      *
      * @param key ключ API
      * @param text переводимый текст
@@ -102,8 +199,10 @@ public class DataManager {
      * @param ui используемая локализация приложения
      * @return Объект, используемый для асинхронной загрузки данных
      */
-    public Call<JsonObject> getDataFromDictionary(String key, String text, String lang, String ui) {
-        return yandexDictionaryAPI.getMeaning(buildMapToRequest(key, lang, text, ui));
+    public Call<DictionaryResult> getDataFromDictionary(String key, String text, String lang, String ui) {
+        return singleFlight.call(SingleFlight.key(ENDPOINT_LOOKUP, text, lang, ui),
+                () -> yandexDictionaryAPI.getMeaning(buildMapToRequest(key, lang, text, ui)),
+                DictionaryResult::copy);
     }
 
     /**
@@ -113,7 +212,9 @@ public class DataManager {
      * @return Объект, используемый для асинхронной загрузки данных
      */
     public Call<JsonObject> loadDataForLocalization(String localization) {
-        return yandexTranslateAPI.getData(YTransApp.get().getString(R.string.key_translate), localization);
+        final String key = YTransApp.get().getString(R.string.key_translate);
+        return singleFlight.call(SingleFlight.key(ENDPOINT_GET_LANGS, "", "", localization),
+                () -> yandexTranslateAPI.getData(key, localization));
     }
 
     /**
@@ -125,11 +226,66 @@ public class DataManager {
      * @return Объект, используемый для асинхронной загрузки данных
      */
     public Call<Result> requestTranslation(String key, String text, String lang) {
-        return yandexTranslateAPI.translate(buildMapToRequest(key, lang, text));
+        return singleFlight.call(SingleFlight.key(ENDPOINT_TRANSLATE, text, lang, ""),
+                () -> yandexTranslateAPI.translate(buildMapToRequest(key, lang, text)));
     }
 
+    /**
+     * Загружает переводы нескольких текстов одним запросом
+     *
+     * @param key   Ключ API
+     * @param texts Исходные тексты
+     * @param lang  Направление перевода
+     * @return Объект, используемый для асинхронной загрузки данных. Переводы возвращаются
+     * в порядке исходных текстов
+     */
+    public Call<Result> requestBatchTranslation(String key, List<String> texts, String lang) {
+        // Тексты не содержат нулевых символов, поэтому склеенный через них список однозначен
+        final StringBuilder joinedTexts = new StringBuilder();
+        for (String text : texts)
+            joinedTexts.append(text).append('\u0000');
+        return singleFlight.call(SingleFlight.key(ENDPOINT_TRANSLATE_BATCH, joinedTexts.toString(), lang, ""),
+                () -> yandexTranslateAPI.translateBatch(key, lang, texts));
+    }
 
+    /**
+     * Обновляет справочник языков из сети в фоне. Ответ хранится в дисковом кэше ответов
+     * ограниченный срок ({@link YandexTranslateAPI#LANGUAGES_MAX_AGE_SECONDS}), после которого
+     * список снова запрашивается с сервера.
+     * До получения ответа используется текущий справочник (загруженный ранее или поставляемый
+     * с приложением). Новый список сохраняется в базу данных и подменяет справочник целиком,
+     * если он отличается от текущего. При ошибке загрузки текущий справочник остаётся,
+     * обновление повторится при следующем вызове
+     */
+    public void refreshLanguageCatalogAsync() {
+        if (mIsCatalogRefreshStarted)
+            return;
+        mIsCatalogRefreshStarted = true;
+
+        final String localization = mLocalSymbol;
+        loadDataForLocalization(localization).enqueue(new Callback<JsonObject>() {
+            @Override
+            public void onResponse(Call<JsonObject> call, Response<JsonObject> response) {
+                if (response == null || !response.isSuccessful() || response.body() == null) {
+                    onFailure(call, new IllegalStateException("Unexpected response"));
+                    return;
+                }
+
+                final List<Localization> localizations =
+                        BundledLanguages.parse(response.body(), localization);
+                if (localizations.isEmpty() || getLanguageCatalog().hasSameLanguages(localizations))
+                    return;
+
+                cacheLanguageData(localizations, result -> setDataForLocalizationIsCached(localization));
+            }
 
+            @Override
+            public void onFailure(Call<JsonObject> call, Throwable t) {
+                Log.w(TAG, "Unable to refresh languages", t);
+                mIsCatalogRefreshStarted = false;
+            }
+        });
+    }
 
     /*
      * Обращения к данным SharedPreferences
@@ -159,72 +315,199 @@ public class DataManager {
      */
 
     /**
-     * Изменяет избранность данного перевода
+     * Изменяет избранность данного перевода.
+     * Изменение в базе данных выполняется в фоновом потоке, кэш обновляется в главном потоке.
      *
      * @param word Переводимый текст
      * @param direction Направление перевода
-     * @return True, если перевод попал в избранное. False, если он был удалён
-     */
-    public boolean reverseWordStarred(String word, String direction) {
-        // Возможно, мы пытаемся добавить перевод в список избранных, если он ещё не добавлен в историю
-        // В таком случае добавляем его в историю
-        final HistoryObject historyObject = cacheData.getWordFromHistory(word, direction);
-        if (historyObject == null)
-            addWordToHistory(word, direction);
-
-        // Изменяем избранность переданного перевода
-        final boolean isStarredNow = cacheData.reverseWordStarred(word, direction);
-        // Обновляем избранность в кэше
-        for (HistoryObject object : historyObjectsCache)
-            if (object.getWord().equals(word) && object.getDirection().equals(direction)) {
-                object.setFavorites(isStarredNow);
-                break;
-            }
-
-        return isStarredNow;
+     * @param callback Получает True, если перевод попал в избранное, и False, если он был удалён
+     *                 (может быть null)
+     */
+    public void reverseWordStarredAsync(String word, String direction, DataCallback<Boolean> callback) {
+        // Перевод может ещё быть промежуточным или находиться в очереди записи
+        commitTranslation(word, direction);
+        writeQueue.flush();
+        // Перевод, которого ещё нет в истории, добавляется в неё в той же транзакции
+        databaseExecutor.write(() -> cacheData.reverseWordStarred(word, direction), update -> {
+            // Изменить избранность не удалось, в представлении остаётся прежнее состояние
+            if (update == null)
+                return;
+
+            // Обновляем избранность в кэше. Списки истории обновляются сами после записи
+            if (update.addedToHistory != null)
+                translationCache.put(update.addedToHistory);
+            translationCache.setStarred(word, direction, update.isStarred);
+
+            if (callback != null)
+                callback.onResult(update.isStarred);
+        });
     }
 
     /**
-     * Добавляет перевод в историю
+     * Запоминает перевод, полученный во время набора текста. Перевод доступен для поиска,
+     * но записывается в базу данных, только если будет вызван {@link #commitTranslation(String, String)}
+     * (или перевод будет добавлен в историю или в избранное)
      *
      * @param item Объект перевода
      */
-    public void addWordToHistory(HistoryObject item) {
-        cacheData.addWordToHistory(item);
+    public void stageTranslation(HistoryObject item) {
+        translationCache.put(item);
+        translationStaging.put(item);
     }
 
     /**
-     * Возвращает список переводов из истории
+     * Ставит промежуточный перевод в очередь записи в базу данных.
+     * Вызывается, когда пользователь начинает работать с переводом
      *
-     * @return Список переводов из истории
+     * @param word Переводимый текст
+     * @param direction Направление перевода
      */
-    public List<HistoryObject> getHistoryWords() {
-        return historyObjectsCache;
+    public void commitTranslation(String word, String direction) {
+        HistoryObject staged = translationStaging.remove(word, direction);
+
+        // Промежуточных переводов хранится немного, и вытесненный перевод, показанный пользователю,
+        // берётся из памяти. Если он уже есть в базе данных, то запись его не изменит
+        if (staged == null)
+            staged = translationCache.getFromMemory(word, direction);
+
+        if (staged != null)
+            writeQueue.putTranslation(staged);
     }
 
     /**
-     * Находит объект перевода по переводимому тексту и направлению перевода
+     * Открывает список переводов истории (или избранных переводов), связанный с базой данных.
+     * Переводы читаются из базы данных по мере обращения к ним и открываются постранично
+     * (см. {@link #loadHistoryPageAsync}), список обновляется после каждой записи.
+     * Вызывается в главном потоке
+     *
+     * @param starredOnly True, если нужны только избранные переводы
+     * @return Список, который нужно закрыть после использования
+     */
+    public HistoryList openHistoryList(boolean starredOnly) {
+        return new HistoryList(this, starredOnly, mHistoryPageSize);
+    }
+
+    /**
+     * Открывает страницу переводов истории (или избранных переводов), упорядоченных по дате
+     * первого использования. Начало следующей страницы находится в фоновом потоке, а сама страница
+     * открывается в главном потоке запросом диапазона дат и не копирует переводы из базы данных
+     *
+     * @param starredOnly True, если нужны только избранные переводы
+     * @param from        Начало страницы (null - с начала истории)
+     * @param pageSize    Количество переводов на странице
+     * @param callback    Получает страницу, которую нужно закрыть после использования
+     *                    (null, если прочитать историю не удалось)
+     */
+    public void loadHistoryPageAsync(boolean starredOnly, @Nullable HistoryPage.Cursor from, int pageSize,
+                                     DataCallback<HistoryPage> callback) {
+        final Date fromDate = from == null ? null : new Date(from.firstUsingDate);
+        databaseExecutor.read(() -> cacheData.findNextHistoryPage(starredOnly, fromDate, pageSize), nextDate -> {
+            if (nextDate == null) {
+                callback.onResult(null);
+                return;
+            }
+
+            final HistoryPage.Cursor next = nextDate == CacheData.NO_NEXT_HISTORY_PAGE
+                    ? null
+                    : new HistoryPage.Cursor(nextDate);
+            final Date toDate = next == null ? null : new Date(next.firstUsingDate);
+            callback.onResult(new HistoryPage(cacheData,
+                    cacheData.openHistory(starredOnly, fromDate, toDate), next));
+        });
+    }
+
+    /**
+     * Ищет переводы истории (или избранные переводы) в фоновом потоке
+     *
+     * @param constraint  Введённый текст
+     * @param starredOnly True, если поиск выполняется только среди избранных переводов
+     * @param callback    Получает найденные переводы, упорядоченные по дате первого использования
+     */
+    public void searchHistoryAsync(String constraint, boolean starredOnly,
+                                   DataCallback<List<HistoryObject>> callback) {
+        databaseExecutor.read(() -> cacheData.searchHistory(constraint, starredOnly), callback);
+    }
+
+    /**
+     * Находит объект перевода по переводимому тексту и направлению перевода.
+     * Сначала перевод ищется в оперативной памяти, затем (в фоновом потоке) в базе данных
      *
      * @param word Переводимый текст
      * @param direction Направление перевода
-     * @return Объект перевода
+     * @param callback Получает объект перевода, или null, если перевод не найден
+     */
+    public void getHistoryWordAsync(String word, String direction, DataCallback<HistoryObject> callback) {
+        // Перевод, ожидающий записи, мог быть вытеснен из памяти, но его ещё нет в базе данных
+        HistoryObject pending = writeQueue.getPendingTranslation(word, direction);
+        if (pending == null)
+            pending = translationStaging.get(word, direction);
+        if (pending != null) {
+            callback.onResult(pending);
+            return;
+        }
+        translationCache.get(word, direction, callback);
+    }
+
+    /**
+     * Находит переводы нескольких текстов (например, предложений длинного текста).
+     * Сначала переводы ищутся в оперативной памяти, оставшиеся - одним запросом к базе данных
+     *
+     * @param words Переводимые тексты
+     * @param direction Направление перевода
+     * @param callback Получает найденные переводы по переводимому тексту
      */
-    public HistoryObject getHistoryWord(String word, String direction) {
-        return cacheData.getWordFromCache(word, direction);
+    public void getTranslationsAsync(List<String> words, String direction,
+                                     DataCallback<Map<String, HistoryObject>> callback) {
+        translationCache.getAll(words, direction, callback);
     }
 
     /**
-     * Возвращает список переводов, попавших в избранное
+     * Запоминает переводы нескольких текстов (например, предложений), полученные во время набора.
+     * Как и {@link #stageTranslation(HistoryObject)}, в базу данных они сразу не записываются
      *
-     * @return Список избранных переводов
+     * @param items Объекты переводов
+     */
+    public void stageTranslations(List<HistoryObject> items) {
+        for (HistoryObject item : items)
+            stageTranslation(item);
+    }
+
+    /**
+     * Записывает в базу данных все отложенные изменения. Вызывается, когда приложение уходит
+     * в фон, чтоб не оставлять изменения только в памяти и журнале.
+     * Промежуточные переводы не записываются, в журнал выводится статистика по ним за сеанс
      */
-    public List<HistoryObject> getStarredWords() {
-        final List<HistoryObject> starredWords = new ArrayList<>();
-        for (HistoryObject object: getHistoryWords())
-            if (object.isFavorites())
-                starredWords.add(object);
+    public void flushPendingWrites() {
+        writeQueue.flush();
+        Log.i(TAG, "Translation staging\n" + translationStaging.getStatsDescription());
+    }
 
-        return starredWords;
+    /**
+     * @return Очередь отложенной записи (используется для получения статистики объединённых записей)
+     */
+    public HistoryWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    /**
+     * @return Промежуточные переводы (используется для получения статистики несделанных записей)
+     */
+    public TranslationStaging getTranslationStaging() {
+        return translationStaging;
+    }
+
+    /**
+     * @return Объединитель запросов (используется для получения статистики сэкономленных запросов)
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * @return Кэш переводов (используется для получения статистики попаданий)
+     */
+    public TranslationCache getTranslationCache() {
+        return translationCache;
     }
 
     /**
@@ -233,77 +516,175 @@ public class DataManager {
      * @param starredOnly True, если удаляются только избранные переводы. False, если удаляется вся история
      */
     public void clearHistory(boolean starredOnly) {
+        // Очистка должна применяться и к переводам, ожидающим записи
+        writeQueue.flush();
+
         if (starredOnly)
         {
             // Удаляем избранность переводов в базе данных и в кэше
-            cacheData.clearStarredList();
-            for (HistoryObject object : historyObjectsCache)
-                object.setFavorites(false);
+            databaseExecutor.write(cacheData::clearStarredList);
         }
         else {
             // очищаем историю переводов в базе и в кэше
-            cacheData.clearHistory();
-            historyObjectsCache = new ArrayList<>();
+            databaseExecutor.write(cacheData::clearHistory);
         }
 
+        // Переводы в памяти могли хранить старое состояние, проще загрузить их заново
+        translationCache.clearMemory();
+
     }
 
     /**
-     * Кэширует переданные данные приложения
+     * Кэширует переданные данные приложения. Запись выполняется в фоновом потоке
      *
      * @param localizations Список обёрток над локализациями
+     * @param callback Вызывается, когда данные были сохранены
      */
-    public void cacheLanguageData(List<Localization> localizations) {
-        cacheData.saveLocalization(localizations);
-        mLocalizations = null;
+    public void cacheLanguageData(List<Localization> localizations, DataCallback<Void> callback) {
+        databaseExecutor.write(() -> {
+            cacheData.saveLocalization(localizations);
+            // Новый справочник строится в фоновом потоке и подменяет старый одной операцией
+            return new LanguageCatalog(localizations);
+        }, catalog -> {
+            // Список не сохранён, остаётся текущий справочник
+            if (catalog == null)
+                return;
+
+            mLanguageCatalog = catalog;
+            mIsBundledCatalog = false;
+            if (callback != null)
+                callback.onResult(null);
+        });
     }
 
     /**
-     * Возвращает закэшированную информацию о слове, полученную из Яндекс Словаря
+     * Находит закэшированную информацию о слове, полученную из Яндекс Словаря.
+     * Статья ищется среди ожидающих записи, затем (в фоновом потоке) в базе данных
      *
-     * @param word Запрашиваемое слово
-     * @param dir  Направление перевод
-     * @return Объект, содержащий информацию о слове
+     * @param word     Запрашиваемое слово
+     * @param dir      Направление перевод
+     * @param callback Получает объект с информацией о слове, или null, если он не был закэширован
      */
-    public DictionaryObject getCachedWord(String word, String dir) {
-        return cacheData.getCachedWord(word, dir);
+    public void getCachedWordAsync(String word, String dir, DataCallback<DictionaryObject> callback) {
+        final DictionaryObject pending = writeQueue.getPendingDictionary(word, dir);
+        if (pending != null) {
+            callback.onResult(pending);
+            return;
+        }
+        databaseExecutor.read(() -> cacheData.getCachedWord(word, dir), dictionaryObject -> {
+            // Время обращения к статье используется для вытеснения давно не использованных статей
+            if (dictionaryObject != null)
+                writeQueue.touchDictionary(word, dir);
+            callback.onResult(dictionaryObject);
+        });
     }
 
-    public WordObject getCachedDictionary(long id) {
-        return cacheData.getCachedDictionary(id);
+    /**
+     * Находит толкование слова из словарной статьи.
+     * Толкование ищется среди ожидающих записи статей, затем (в фоновом потоке) в базе данных
+     *
+     * @param id       Идентификатор толкования
+     * @param callback Получает толкование, или null, если его нет в кэше
+     */
+    public void getCachedDictionaryAsync(long id, DataCallback<WordObject> callback) {
+        final WordObject pending = writeQueue.getPendingWordObject(id);
+        if (pending != null) {
+            callback.onResult(pending);
+            return;
+        }
+        databaseExecutor.read(() -> cacheData.getCachedDictionary(id), callback);
     }
 
-    public void cacheDictionaryWord(DictionaryObject dictionaryObject) {
-        cacheData.cacheDictionary(dictionaryObject);
+    /**
+     * Сохраняет словарную статью в базе данных. Запись выполняется отложенно, в фоновом потоке
+     */
+    public void cacheDictionaryWordAsync(DictionaryObject dictionaryObject) {
+        writeQueue.putDictionary(dictionaryObject);
+
+        // Кэш словарных статей может вырасти за одну сессию, поэтому его размер
+        // проверяется не только при запуске
+        if (++mDictionariesSinceEviction >= DICTIONARY_BUDGET_CHECK_INTERVAL && !mIsEvictionRunning) {
+            writeQueue.flush();
+            startEviction(cacheEvictor.newDictionaryBudgetRun());
+        }
     }
 
-    public void addWordToHistory(String word, String direction) {
-        final HistoryObject object = cacheData.updateHistoryWord(word, direction);
-        if (object == null)
-            return;
-
-        boolean existsInHistory = false;
-        for (HistoryObject obj: historyObjectsCache)
-            if (obj.getWord().equals(word) && obj.getDirection().equals(object.getDirection())) {
-                existsInHistory = true;
-                break;
-            }
+    /**
+     * Добавляет ранее закэшированный перевод в историю.
+     * Запись выполняется в фоновом потоке вместе с ожидающими изменениями,
+     * кэш истории обновляется в главном потоке
+     *
+     * @param word Переводимый текст
+     * @param direction Направление перевода
+     */
+    public void addWordToHistoryAsync(String word, String direction) {
+        commitTranslation(word, direction);
+        writeQueue.addToHistory(word, direction);
+    }
 
-        if (!existsInHistory)
-            historyObjectsCache.add(object);
+    /**
+     * Вызывается в главном потоке после записи пачки отложенных изменений
+     *
+     * @param addedToHistory Переводы, добавленные в историю
+     */
+    private void onHistoryWritten(List<HistoryObject> addedToHistory) {
+        for (HistoryObject object : addedToHistory)
+            translationCache.put(object);
     }
 
     /**
      * Кэш перевода живёт какое-то ограниченное количество дней
      * При каждом запуске приложения проводится очистка кэша. Если какой-то перевод хранится больше,
-     * чем заданное количество дней, то он удаляется.
+     * чем заданное количество дней, или переводов в кэше слишком много, то он удаляется.
      *
      * Если перевод попал в историю, то он не удаляется никогда (пока перевод находится в истории)
      */
     public void clearCacheIfNecessary() {
-            cacheData.clearCache();
+        // Очистка выполняется в потоке записи по шагам: каждый шаг - небольшая транзакция,
+        // а между шагами выполняются остальные записи в базу данных
+        writeQueue.flush();
+        startEviction(cacheEvictor.newRun());
     }
 
+    private void startEviction(CacheEvictor.Run run) {
+        mIsEvictionRunning = true;
+        mDictionariesSinceEviction = 0;
+        runEvictionStep(run);
+    }
+
+    private void runEvictionStep(CacheEvictor.Run run) {
+        databaseExecutor.write(() -> {
+            // Ошибка в шаге завершает очистку, остальное будет удалено при следующей очистке
+            try {
+                return run.step();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Cache eviction step failed", e);
+                return false;
+            }
+        }, hasMoreSteps -> {
+            if (hasMoreSteps != null && hasMoreSteps)
+                runEvictionStep(run);
+            else
+                onCacheEvicted(run.getReport());
+        });
+    }
+
+    private void onCacheEvicted(CacheEvictionReport report) {
+        mIsEvictionRunning = false;
+        mLastEvictionReport = report;
+        Log.i(TAG, "Cache eviction finished\n" + report.getDescription());
+
+        // Удалённые из базы данных переводы могли остаться в памяти
+        if (report.getExpiredTranslations() + report.getOverflowTranslations() > 0)
+            translationCache.clearMemory();
+    }
+
+    /**
+     * @return Результат последней очистки кэша, или null, если очистка ещё не закончилась
+     */
+    public CacheEvictionReport getLastEvictionReport() {
+        return mLastEvictionReport;
+    }
 
     /**
      * Возвращает символьный код языка, которому соответствует указанное имя языка
@@ -312,54 +693,64 @@ public class DataManager {
      * @return Символьный код языка
      */
     public String getLanguageSymbolByName(String languageName) {
-        checkCachedLocalizations();
-        for (Localization localization : mLocalizations)
-            if (localization.getLanguageTitle().equals(languageName))
-                return localization.getLanguageSymbol();
-
-        return "";
+        return getLanguageCatalog().getCode(languageName);
     }
 
-    /*
-     * Остальные функции
+    /**
+     * Возвращает название языка в используемой локализации UI
+     *
+     * @param code Символьный код языка
+     * @return Название языка
      */
-
-    private ArrayList<String> mCachedLanguagesList = null;
-
-    public ArrayList<String> getLanguagesList() {
-        if (mCachedLanguagesList != null)
-            return mCachedLanguagesList;
-
-        // Если список языков не хранится в оперативной памяти
-        // (или был удалён оттуда по причине смены языка), то получаем его из базы данных
-        checkCachedLocalizations();
-        mCachedLanguagesList = new ArrayList<>();
-        for (Localization localization : mLocalizations)
-            mCachedLanguagesList.add(localization.getLanguageTitle());
-
-        // Сортировка в лексикографическом порядке
-        Collections.sort(mCachedLanguagesList, String::compareTo);
-
-        return mCachedLanguagesList;
+    public String getLanguageByCode(String code) {
+        return getLanguageCatalog().getTitle(code);
     }
 
     /**
-     * Получаем список языков из БД в выбранной локализации
+     * @return Справочник языков в используемой локализации UI
      */
-    private void checkCachedLocalizations() {
-        if (mLocalizations == null)
-            mLocalizations = cacheData.getLanguageList(mLocalSymbol);
+    public LanguageCatalog getLanguageCatalog() {
+        // Если справочник языков ещё не прочитан в фоновом потоке, то сразу строим его из списка,
+        // поставляемого с приложением: в главном потоке к базе данных не обращаемся
+        LanguageCatalog catalog = mLanguageCatalog;
+        if (catalog == null) {
+            catalog = loadBundledLanguageCatalog();
+            mLanguageCatalog = catalog;
+            mIsBundledCatalog = true;
+        }
+        return catalog;
     }
 
-
-    public String getLanguageByCode(String code) {
-        checkCachedLocalizations();
-        for (Localization localization : mLocalizations)
-            if (localization.getLanguageSymbol().equals(code))
-                return localization.getLanguageTitle();
-        return "";
+    /**
+     * Строит справочник языков из базы данных. Выполняется в фоновом потоке
+     *
+     * @return Справочник, или null, если список языков ещё не сохранён
+     */
+    private LanguageCatalog loadCachedLanguageCatalog() {
+        if (!isDataForLocalizationCached(mLocalSymbol))
+            return null;
+
+        final long startTime = StartupTrace.begin("DataManager.loadCachedLanguageCatalog");
+        final Localization[] localizations = cacheData.getLanguageList(mLocalSymbol);
+        final LanguageCatalog catalog = localizations.length == 0
+                ? null
+                : new LanguageCatalog(Arrays.asList(localizations));
+        StartupTrace.end("DataManager.loadCachedLanguageCatalog", startTime);
+        return catalog;
     }
 
+    /**
+     * Строит справочник языков из списка, поставляемого с приложением.
+     * Используется, пока список языков не прочитан из базы данных или не загружен из сети.
+     * Обычно выполняется в фоновом потоке при создании объекта
+     */
+    private LanguageCatalog loadBundledLanguageCatalog() {
+        final long startTime = StartupTrace.begin("DataManager.loadBundledLanguageCatalog");
+        final LanguageCatalog catalog =
+                new LanguageCatalog(BundledLanguages.load(YTransApp.get(), mLocalSymbol));
+        StartupTrace.end("DataManager.loadBundledLanguageCatalog", startTime);
+        return catalog;
+    }
 
     /*
      * Вспомогательные функции для составления запросов
@@ -0,0 +1,153 @@
+package com.licht.ytranslator.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.licht.ytranslator.data.sources.RealmInstanceManager;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выполняет обращения к базе данных вне главного потока.
+ *
+ * Все записи выполняются в одном потоке, поэтому транзакции не конкурируют друг с другом
+ * и применяются в том порядке, в котором были запрошены. Чтения выполняются в небольшом
+ * пуле потоков фиксированного размера.
+ * Результаты возвращаются в главный поток.
+ *
+ * На время выполнения задачи в её потоке удерживается экземпляр Realm, поэтому все обращения
+ * к базе данных внутри одной задачи используют один экземпляр, который закрывается по её завершении.
+ *
+ * Если задача завершилась ошибкой, получатель результата всё равно вызывается, с результатом null,
+ * чтоб ожидающий результата код не остался в состоянии загрузки навсегда.
+ */
+public class DatabaseExecutor {
+    private static final String TAG = "DatabaseExecutor";
+
+    // Количество потоков для чтения из базы данных
+    private static final int READ_THREADS_COUNT = 2;
+
+    private final ExecutorService mWriteExecutor;
+    private final ExecutorService mReadExecutor;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final RealmInstanceManager mRealmInstanceManager;
+
+    // Запись, окончания которой дожидаются чтения, запрошенные после её установки
+    // (например, восстановление несохранённых изменений при запуске)
+    private volatile Future<?> mReadBarrier = null;
+
+    public DatabaseExecutor(RealmInstanceManager realmInstanceManager) {
+        super();
+        mRealmInstanceManager = realmInstanceManager;
+        mWriteExecutor = Executors.newSingleThreadExecutor(new DatabaseThreadFactory("db-write"));
+        mReadExecutor = Executors.newFixedThreadPool(READ_THREADS_COUNT, new DatabaseThreadFactory("db-read"));
+    }
+
+    /**
+     * Выполняет чтение из базы данных в фоновом потоке
+     *
+     * @param task     Чтение из базы данных
+     * @param callback Получатель результата (может быть null)
+     * @return Объект, через который можно дождаться результата или отменить чтение
+     */
+    public <T> Future<T> read(Callable<T> task, DataCallback<T> callback) {
+        final Future<?> barrier = mReadBarrier;
+        if (barrier == null || barrier.isDone())
+            return mReadExecutor.submit(wrap(task, callback));
+
+        // Экземпляр Realm фоновых потоков видит состояние базы данных на момент открытия,
+        // поэтому запись дожидаются до его открытия
+        final Callable<T> wrapped = wrap(task, callback);
+        return mReadExecutor.submit(() -> {
+            try {
+                barrier.get();
+            } catch (ExecutionException e) {
+                // Ошибка записи уже записана в лог, читаются данные в текущем состоянии
+            }
+            return wrapped.call();
+        });
+    }
+
+    /**
+     * Устанавливает запись, окончания которой будут дожидаться последующие чтения
+     *
+     * @param write Запись в базу данных, полученная из {@link #write(Runnable)}
+     */
+    public void setReadBarrier(Future<?> write) {
+        mReadBarrier = write;
+    }
+
+    /**
+     * Выполняет запись в базу данных в потоке записи
+     *
+     * @param task     Запись в базу данных
+     * @param callback Получатель результата (может быть null)
+     * @return Объект, через который можно дождаться результата
+     */
+    public <T> Future<T> write(Callable<T> task, DataCallback<T> callback) {
+        return mWriteExecutor.submit(wrap(task, callback));
+    }
+
+    /**
+     * Выполняет запись в базу данных в потоке записи, не дожидаясь результата
+     *
+     * @param task Запись в базу данных
+     * @return Объект, через который можно дождаться окончания записи
+     */
+    public Future<?> write(Runnable task) {
+        return mWriteExecutor.submit(wrap(() -> {
+            task.run();
+            return null;
+        }, null));
+    }
+
+    private <T> Callable<T> wrap(Callable<T> task, DataCallback<T> callback) {
+        return () -> {
+            final T result;
+            try {
+                mRealmInstanceManager.acquire();
+                try {
+                    result = task.call();
+                } finally {
+                    mRealmInstanceManager.release();
+                }
+            } catch (Exception e) {
+                // Ошибка в одном обращении не должна останавливать поток базы данных.
+                // Получатель узнаёт об ошибке по результату null, Future - по исключению
+                Log.e(TAG, "Database task failed", e);
+                if (callback != null)
+                    mMainHandler.post(() -> callback.onResult(null));
+                throw e;
+            }
+
+            if (callback != null)
+                mMainHandler.post(() -> callback.onResult(result));
+            return result;
+        };
+    }
+
+    private static class DatabaseThreadFactory implements ThreadFactory {
+        private final String mPrefix;
+        private final AtomicInteger mCounter = new AtomicInteger();
+
+        DatabaseThreadFactory(String prefix) {
+            mPrefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, mPrefix + "-" + mCounter.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
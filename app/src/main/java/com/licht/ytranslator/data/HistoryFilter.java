@@ -0,0 +1,37 @@
+package com.licht.ytranslator.data;
+
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import java.util.List;
+
+/**
+ * Поиск по истории переводов.
+ *
+ * Не зависит от Android, поэтому используется как фильтром списка истории,
+ * так и бенчмарками на обычной JVM.
+ */
+public final class HistoryFilter {
+
+    private HistoryFilter() {
+    }
+
+    /**
+     * Выбирает переводы, где введённый текст встречается в тексте, или в переводе (без учёта регистра)
+     *
+     * @param items      Переводы, среди которых выполняется поиск
+     * @param constraint Введённый текст
+     * @param result     Список, в который добавляются найденные переводы (в исходном порядке)
+     */
+    public static void filter(List<HistoryObject> items, CharSequence constraint, List<HistoryObject> result) {
+        if (constraint == null || constraint.length() == 0) {
+            result.addAll(items);
+            return;
+        }
+
+        final String pattern = constraint.toString().toLowerCase().trim();
+        for (final HistoryObject historyObject : items)
+            if (historyObject.getWord().toLowerCase().contains(pattern) ||
+                    historyObject.getTranslate().toLowerCase().contains(pattern))
+                result.add(historyObject);
+    }
+}
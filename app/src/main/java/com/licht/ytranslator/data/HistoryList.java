@@ -0,0 +1,157 @@
+package com.licht.ytranslator.data;
+
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.realm.RealmChangeListener;
+import io.realm.RealmResults;
+
+/**
+ * Список переводов истории (или избранных переводов), связанный с базой данных
+ * и открываемый постранично.
+ *
+ * Объекты не копируются из Realm: строка читается из базы данных только при обращении к ней,
+ * поэтому открытие экрана истории занимает время, пропорциональное количеству видимых строк,
+ * а не размеру истории. Запросы выполняются асинхронно, а после каждой записи в базу данных
+ * список обновляется сам и сообщает об этом слушателю.
+ *
+ * Список состоит из страниц, открываемых через {@link DataManager#loadHistoryPageAsync}:
+ * следующая страница открывается при прокрутке ({@link #loadNextPage()}) с позиции,
+ * на которой закончилась предыдущая.
+ *
+ * Объекты списка управляются Realm, поэтому их нельзя изменять и передавать в другие потоки.
+ * Список используется только из главного потока и должен быть закрыт вызовом {@link #close()}.
+ */
+public class HistoryList {
+
+    /**
+     * Слушатель изменений списка. Вызывается в главном потоке
+     */
+    public interface Listener {
+        void onChanged();
+    }
+
+    private final DataManager mDataManager;
+    private final boolean mStarredOnly;
+    private final int mPageSize;
+
+    // Открытые страницы, по порядку
+    private final List<HistoryPage> mPages = new ArrayList<>();
+    private final RealmChangeListener<RealmResults<HistoryObject>> mChangeListener = results -> notifyChanged();
+
+    private boolean mIsPageRequested = false;
+    private boolean mIsClosed = false;
+
+    private Listener mListener = null;
+
+    HistoryList(DataManager dataManager, boolean starredOnly, int pageSize) {
+        super();
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+
+        mDataManager = dataManager;
+        mStarredOnly = starredOnly;
+        mPageSize = pageSize;
+
+        requestPage(null);
+    }
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * @return True, если первая страница уже прочитана. До этого список пуст
+     */
+    public boolean isLoaded() {
+        return !mIsClosed && !mPages.isEmpty() && mPages.get(0).getItems().isLoaded();
+    }
+
+    public int size() {
+        if (mIsClosed)
+            return 0;
+
+        // Страница, запрос которой ещё выполняется, пуста
+        int size = 0;
+        for (HistoryPage page : mPages)
+            size += page.getItems().size();
+        return size;
+    }
+
+    /**
+     * @param position Позиция в списке
+     * @return Объект перевода, связанный с базой данных (только для чтения)
+     */
+    public HistoryObject get(int position) {
+        for (HistoryPage page : mPages) {
+            final RealmResults<HistoryObject> items = page.getItems();
+            if (position < items.size())
+                return items.get(position);
+            position -= items.size();
+        }
+        throw new IndexOutOfBoundsException("Position is out of the opened pages");
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    /**
+     * Открывает следующую страницу, если она есть.
+     * Страница добавляется к списку после чтения из базы данных, поэтому её можно запрашивать
+     * во время привязки строк RecyclerView
+     */
+    public void loadNextPage() {
+        if (mIsClosed || mIsPageRequested)
+            return;
+
+        // Первую страницу не удалось прочитать, пробуем ещё раз
+        if (mPages.isEmpty()) {
+            requestPage(null);
+            return;
+        }
+
+        final HistoryPage lastPage = mPages.get(mPages.size() - 1);
+        if (lastPage.getItems().isLoaded() && lastPage.getNext() != null)
+            requestPage(lastPage.getNext());
+    }
+
+    /**
+     * Отключает список от базы данных. После закрытия список пуст
+     */
+    public void close() {
+        if (mIsClosed)
+            return;
+
+        mIsClosed = true;
+        mListener = null;
+        for (HistoryPage page : mPages)
+            page.close();
+        mPages.clear();
+    }
+
+    private void requestPage(HistoryPage.Cursor from) {
+        mIsPageRequested = true;
+        mDataManager.loadHistoryPageAsync(mStarredOnly, from, mPageSize, page -> {
+            mIsPageRequested = false;
+            if (page == null)
+                return;
+
+            if (mIsClosed) {
+                page.close();
+                return;
+            }
+
+            // Список изменится, когда запрос страницы выполнится
+            mPages.add(page);
+            page.getItems().addChangeListener(mChangeListener);
+        });
+    }
+
+    private void notifyChanged() {
+        if (mListener != null)
+            mListener.onChanged();
+    }
+}
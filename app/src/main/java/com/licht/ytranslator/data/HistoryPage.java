@@ -0,0 +1,68 @@
+package com.licht.ytranslator.data;
+
+import android.support.annotation.Nullable;
+
+import com.licht.ytranslator.data.model.HistoryObject;
+import com.licht.ytranslator.data.sources.CacheData;
+
+import io.realm.RealmResults;
+
+/**
+ * Страница списка переводов истории (или избранных переводов), упорядоченного по дате
+ * первого использования.
+ *
+ * Страница содержит переводы с датой первого использования от своего начала до начала следующей
+ * страницы. Переводы с одинаковой датой не разделяются между страницами, а переводы, добавленные
+ * после открытия страницы, попадают на страницу со своей датой.
+ *
+ * Переводы не копируются из Realm: страница связана с базой данных, обновляется сама после каждой
+ * записи и должна быть закрыта вызовом {@link #close()}. Используется только из главного потока.
+ */
+public class HistoryPage {
+    private final CacheData mCacheData;
+    private final RealmResults<HistoryObject> mItems;
+    private final Cursor mNext;
+
+    HistoryPage(CacheData cacheData, RealmResults<HistoryObject> items, @Nullable Cursor next) {
+        super();
+        mCacheData = cacheData;
+        mItems = items;
+        mNext = next;
+    }
+
+    /**
+     * @return Переводы страницы, связанные с базой данных (запрос выполняется асинхронно)
+     */
+    public RealmResults<HistoryObject> getItems() {
+        return mItems;
+    }
+
+    /**
+     * @return Начало следующей страницы, или null, если страница последняя
+     */
+    @Nullable
+    public Cursor getNext() {
+        return mNext;
+    }
+
+    /**
+     * Отключает страницу от базы данных
+     */
+    public void close() {
+        mCacheData.closeHistory(mItems);
+    }
+
+    /**
+     * Позиция в списке истории: дата первого использования первого перевода страницы.
+     *
+     * В отличие от номера строки, позиция не сдвигается, когда в историю добавляются
+     * или из неё удаляются переводы перед ней
+     */
+    public static class Cursor {
+        final long firstUsingDate;
+
+        Cursor(long firstUsingDate) {
+            this.firstUsingDate = firstUsingDate;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.licht.ytranslator.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.HistoryObject;
+import com.licht.ytranslator.data.model.WordObject;
+import com.licht.ytranslator.data.sources.CacheData;
+import com.licht.ytranslator.data.sources.HistoryJournal;
+import com.licht.ytranslator.data.sources.HistoryWriteBatch;
+import com.licht.ytranslator.utils.StartupTrace;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Очередь отложенной записи кэша переводов, истории и словарных статей в базу данных.
+ *
+ * Изменения накапливаются в памяти и записываются пачкой, одной транзакцией в потоке записи
+ * {@link DatabaseExecutor}: через небольшую задержку после первого изменения, при накоплении
+ * пачки, при добавлении перевода в историю или при явном вызове {@link #flush()}.
+ * Повторные изменения одного и того же перевода (пары текст + направление) объединяются.
+ *
+ * Переводы и добавления в историю дописываются в {@link HistoryJournal}, поэтому не теряются,
+ * если процесс будет завершён до записи. Словарные статьи в журнал не пишутся:
+ * при потере их можно снова получить из сети (или из дискового кэша ответов API).
+ *
+ * Записи, которые должны выполняться после ожидающих в очереди (например, изменение избранности),
+ * нужно запрашивать после {@link #flush()}: поток записи выполняет задачи по порядку.
+ *
+ * Объект используется только из главного потока.
+ */
+public class HistoryWriteQueue {
+    private static final String TAG = "HistoryWriteQueue";
+
+    // Задержка записи после первого изменения, за которую накапливается пачка
+    private static final long FLUSH_DELAY_MS = 2000;
+
+    // Количество изменений, при котором пачка записывается, не дожидаясь задержки
+    private static final int MAX_BATCH_SIZE = 32;
+
+    private final CacheData mCacheData;
+    private final DatabaseExecutor mDatabaseExecutor;
+    private final HistoryJournal mJournal;
+    private final FlushListener mFlushListener;
+
+    // Записи в журнал выполняются в отдельном потоке, чтоб не ждать транзакций базы данных
+    private final ExecutorService mJournalExecutor = Executors.newSingleThreadExecutor();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mFlushRunnable = this::flush;
+
+    // Ожидающие записи изменения по ключу (направление + текст)
+    private final Map<String, HistoryObject> mTranslations = new LinkedHashMap<>();
+    private final Map<String, HistoryWriteBatch.Key> mHistoryKeys = new LinkedHashMap<>();
+    private final Map<String, DictionaryObject> mDictionaries = new LinkedHashMap<>();
+    private final Map<String, HistoryWriteBatch.Key> mDictionaryAccesses = new LinkedHashMap<>();
+
+    // Порядковый номер следующей записи журнала и номер первой записи, не вошедшей ни в одну пачку.
+    // Пачка удаляет из журнала только свои записи (текущего запуска), поэтому при ошибке записи пачки
+    // или восстановления её изменения остаются в журнале до следующего запуска
+    private long mNextSequence = 0;
+    private long mBatchFirstSequence = 0;
+
+    private boolean mIsFlushScheduled = false;
+
+    // Статистика: поставленные в очередь изменения, объединённые с ожидающими, записанные пачки
+    private long mEnqueuedCount = 0;
+    private long mMergedCount = 0;
+    private long mFlushCount = 0;
+
+    /**
+     * Используется для получения результатов записи пачки
+     */
+    public interface FlushListener {
+        /**
+         * @param addedToHistory Переводы, добавленные в историю (в состоянии после записи)
+         */
+        void onFlushed(List<HistoryObject> addedToHistory);
+    }
+
+    public HistoryWriteQueue(CacheData cacheData, DatabaseExecutor databaseExecutor,
+                             HistoryJournal journal, FlushListener flushListener) {
+        super();
+        mCacheData = cacheData;
+        mDatabaseExecutor = databaseExecutor;
+        mJournal = journal;
+        mFlushListener = flushListener;
+    }
+
+    /**
+     * Записывает в базу данных изменения, оставшиеся в журнале после завершения процесса.
+     * Вызывается при запуске, до постановки в очередь новых изменений.
+     *
+     * Восстановление - первая задача потока записи, поэтому оно применяется раньше новых пачек,
+     * а чтения из базы данных, запрошенные после вызова, дожидаются его окончания.
+     * Журнал очищается первой задачей потока журнала после восстановления,
+     * новые записи дописываются в журнал уже после очистки
+     */
+    public void recover() {
+        final Future<?> recovery = mDatabaseExecutor.write(() -> {
+            final long startTime = StartupTrace.begin("HistoryWriteQueue.recover");
+            final HistoryWriteBatch batch = mJournal.read();
+            if (!batch.isEmpty())
+                mCacheData.applyWriteBatch(batch);
+            StartupTrace.end("HistoryWriteQueue.recover", startTime);
+        });
+        mDatabaseExecutor.setReadBarrier(recovery);
+
+        mJournalExecutor.execute(() -> {
+            try {
+                recovery.get();
+                mJournal.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Изменения остаются в журнале до следующего запуска
+                Log.e(TAG, "Unable to recover journal", e);
+            }
+        });
+    }
+
+    /**
+     * Ставит в очередь сохранение перевода в кэше
+     */
+    public void putTranslation(HistoryObject item) {
+        // Объект копируется, т.к. исходный может изменяться в главном потоке во время записи
+        final HistoryObject copy = new HistoryObject(item.getWord(), item.getTranslate(),
+                item.getDirection(), item.getFirstUsingDate());
+        if (mTranslations.put(TranslationKey.of(item.getWord(), item.getDirection()), copy) != null)
+            ++mMergedCount;
+
+        final long sequence = mNextSequence++;
+        mJournalExecutor.execute(() -> mJournal.appendTranslation(sequence, copy));
+        onEnqueued();
+    }
+
+    /**
+     * Ставит в очередь сохранение словарной статьи
+     */
+    public void putDictionary(DictionaryObject dictionaryObject) {
+        final String key = TranslationKey.of(dictionaryObject.getWord(), dictionaryObject.getDirection());
+        if (mDictionaries.put(key, dictionaryObject) != null)
+            ++mMergedCount;
+        onEnqueued();
+    }
+
+    /**
+     * Ставит в очередь обновление времени последнего обращения к словарной статье.
+     * Время обращения не критично, поэтому в журнал не пишется
+     */
+    public void touchDictionary(String word, String direction) {
+        if (mDictionaryAccesses.put(TranslationKey.of(word, direction), new HistoryWriteBatch.Key(word, direction)) != null)
+            ++mMergedCount;
+        onEnqueued();
+    }
+
+    /**
+     * Добавляет перевод в историю. Вызывается по действию пользователя, поэтому пачка
+     * записывается сразу, вместе с ожидающими изменениями.
+     * Добавленный перевод передаётся в {@link FlushListener} (если перевод есть в кэше)
+     */
+    public void addToHistory(String word, String direction) {
+        if (mHistoryKeys.put(TranslationKey.of(word, direction), new HistoryWriteBatch.Key(word, direction)) != null)
+            ++mMergedCount;
+        else {
+            final long sequence = mNextSequence++;
+            mJournalExecutor.execute(() -> mJournal.appendHistoryKey(sequence, word, direction));
+        }
+
+        ++mEnqueuedCount;
+        flush();
+    }
+
+    /**
+     * @return Ожидающий записи перевод, или null, если его нет в очереди
+     */
+    public HistoryObject getPendingTranslation(String word, String direction) {
+        return mTranslations.get(TranslationKey.of(word, direction));
+    }
+
+    /**
+     * @return Ожидающая записи словарная статья, или null, если её нет в очереди
+     */
+    public DictionaryObject getPendingDictionary(String word, String direction) {
+        return mDictionaries.get(TranslationKey.of(word, direction));
+    }
+
+    /**
+     * @return Значение слова из ожидающей записи словарной статьи, или null, если его нет в очереди
+     */
+    public WordObject getPendingWordObject(long id) {
+        for (DictionaryObject dictionaryObject : mDictionaries.values())
+            for (WordObject wordObject : dictionaryObject.getDictionaries())
+                if (wordObject.getId() == id)
+                    return wordObject;
+        return null;
+    }
+
+    /**
+     * Записывает все ожидающие изменения одной транзакцией в потоке записи
+     */
+    public void flush() {
+        if (mIsFlushScheduled) {
+            mHandler.removeCallbacks(mFlushRunnable);
+            mIsFlushScheduled = false;
+        }
+
+        final HistoryWriteBatch batch = new HistoryWriteBatch();
+        batch.translations.addAll(mTranslations.values());
+        batch.historyKeys.addAll(mHistoryKeys.values());
+        batch.dictionaries.addAll(mDictionaries.values());
+        batch.dictionaryAccesses.addAll(mDictionaryAccesses.values());
+        if (batch.isEmpty())
+            return;
+
+        final long firstSequence = mBatchFirstSequence;
+        final long lastSequence = mNextSequence - 1;
+        mBatchFirstSequence = mNextSequence;
+
+        mTranslations.clear();
+        mHistoryKeys.clear();
+        mDictionaries.clear();
+        mDictionaryAccesses.clear();
+        ++mFlushCount;
+
+        mDatabaseExecutor.write(() -> mCacheData.applyWriteBatch(batch), addedToHistory -> {
+            // Запись не удалась: изменения остаются в журнале и будут записаны при следующем запуске
+            if (addedToHistory == null)
+                return;
+
+            // Изменения записаны в базу данных, в журнале они больше не нужны.
+            // Если процесс завершится до этого, то изменения будут безопасно записаны повторно
+            if (lastSequence >= firstSequence)
+                mJournalExecutor.execute(() -> mJournal.drop(firstSequence, lastSequence));
+
+            mFlushListener.onFlushed(addedToHistory);
+        });
+    }
+
+    public int getPendingCount() {
+        return mTranslations.size() + mHistoryKeys.size() + mDictionaries.size() +
+                mDictionaryAccesses.size();
+    }
+
+    public long getEnqueuedCount() {
+        return mEnqueuedCount;
+    }
+
+    /**
+     * @return Количество изменений, объединённых с уже ожидающими изменениями того же перевода
+     */
+    public long getMergedCount() {
+        return mMergedCount;
+    }
+
+    /**
+     * @return Количество транзакций, которыми были записаны изменения
+     */
+    public long getFlushCount() {
+        return mFlushCount;
+    }
+
+    /**
+     * @return Статистика отложенной записи в текстовом виде
+     */
+    public String getStatsDescription() {
+        return "enqueued changes: " + mEnqueuedCount + "\n" +
+                "merged changes: " + mMergedCount + "\n" +
+                "write transactions: " + mFlushCount + "\n" +
+                "pending: " + getPendingCount() + "\n";
+    }
+
+    private void onEnqueued() {
+        ++mEnqueuedCount;
+        if (getPendingCount() >= MAX_BATCH_SIZE)
+            flush();
+        else if (!mIsFlushScheduled) {
+            mIsFlushScheduled = true;
+            mHandler.postDelayed(mFlushRunnable, FLUSH_DELAY_MS);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.licht.ytranslator.data;
+
+import com.licht.ytranslator.data.model.Localization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый справочник языков в одной локализации UI.
+ *
+ * Строится один раз из списка локализаций и позволяет без перебора получать название языка
+ * по его коду и наоборот, отсортированный список названий, а также искать языки по подстроке.
+ * Для поиска хранится отсортированный список всех суффиксов названий: подстрока названия -
+ * это префикс одного из его суффиксов, поэтому поиск сводится к бинарному поиску по префиксу.
+ */
+public final class LanguageCatalog {
+
+    private final Map<String, String> mTitleByCode;
+    private final Map<String, String> mCodeByTitle;
+
+    // Названия языков в лексикографическом порядке
+    private final List<String> mSortedTitles;
+
+    // Суффиксы названий (в нижнем регистре) в лексикографическом порядке,
+    // и индексы названий в mSortedTitles, к которым они относятся
+    private final String[] mSuffixes;
+    private final int[] mSuffixOwners;
+
+    public LanguageCatalog(Localization[] localizations) {
+        this(Arrays.asList(localizations));
+    }
+
+    public LanguageCatalog(List<Localization> localizations) {
+        super();
+
+        final Map<String, String> titleByCode = new HashMap<>(localizations.size() * 2);
+        final Map<String, String> codeByTitle = new HashMap<>(localizations.size() * 2);
+        final List<String> titles = new ArrayList<>(localizations.size());
+
+        for (Localization localization : localizations) {
+            titleByCode.put(localization.getLanguageSymbol(), localization.getLanguageTitle());
+            if (codeByTitle.put(localization.getLanguageTitle(), localization.getLanguageSymbol()) == null)
+                titles.add(localization.getLanguageTitle());
+        }
+
+        // Сортировка в лексикографическом порядке
+        Collections.sort(titles, String::compareTo);
+
+        mTitleByCode = titleByCode;
+        mCodeByTitle = codeByTitle;
+        mSortedTitles = Collections.unmodifiableList(titles);
+
+        final List<Suffix> suffixes = new ArrayList<>();
+        for (int i = 0; i < titles.size(); ++i) {
+            final String title = titles.get(i).toLowerCase();
+            for (int start = 0; start < title.length(); ++start)
+                suffixes.add(new Suffix(title.substring(start), i));
+        }
+        Collections.sort(suffixes, (first, second) -> first.text.compareTo(second.text));
+
+        mSuffixes = new String[suffixes.size()];
+        mSuffixOwners = new int[suffixes.size()];
+        for (int i = 0; i < suffixes.size(); ++i) {
+            mSuffixes[i] = suffixes.get(i).text;
+            mSuffixOwners[i] = suffixes.get(i).owner;
+        }
+    }
+
+    /**
+     * @param code Символьный код языка
+     * @return Название языка, или пустая строка, если язык не найден
+     */
+    public String getTitle(String code) {
+        final String title = mTitleByCode.get(code);
+        return title == null ? "" : title;
+    }
+
+    /**
+     * @param title Название языка
+     * @return Символьный код языка, или пустая строка, если язык не найден
+     */
+    public String getCode(String title) {
+        final String code = mCodeByTitle.get(title);
+        return code == null ? "" : code;
+    }
+
+    /**
+     * @return Названия языков в лексикографическом порядке (только для чтения)
+     */
+    public List<String> getSortedTitles() {
+        return mSortedTitles;
+    }
+
+    public boolean isEmpty() {
+        return mSortedTitles.isEmpty();
+    }
+
+    /**
+     * @param localizations Список языков
+     * @return True, если справочник содержит те же языки с теми же названиями
+     */
+    public boolean hasSameLanguages(List<Localization> localizations) {
+        if (localizations.size() != mTitleByCode.size())
+            return false;
+
+        for (Localization localization : localizations)
+            if (!localization.getLanguageTitle().equals(mTitleByCode.get(localization.getLanguageSymbol())))
+                return false;
+        return true;
+    }
+
+    /**
+     * Находит языки, в названии которых встречается переданный текст (без учёта регистра)
+     *
+     * @param pattern Искомый текст в нижнем регистре
+     * @return Названия подходящих языков в лексикографическом порядке
+     */
+    public List<String> findTitlesContaining(String pattern) {
+        if (pattern.length() == 0)
+            return mSortedTitles;
+
+        final boolean[] isFound = new boolean[mSortedTitles.size()];
+        final List<Integer> foundIndexes = new ArrayList<>();
+
+        for (int i = lowerBound(pattern); i < mSuffixes.length && mSuffixes[i].startsWith(pattern); ++i) {
+            final int owner = mSuffixOwners[i];
+            if (!isFound[owner]) {
+                isFound[owner] = true;
+                foundIndexes.add(owner);
+            }
+        }
+
+        // Индексы соответствуют отсортированному списку названий,
+        // поэтому после их сортировки названия будут в лексикографическом порядке
+        Collections.sort(foundIndexes);
+
+        final List<String> result = new ArrayList<>(foundIndexes.size());
+        for (int index : foundIndexes)
+            result.add(mSortedTitles.get(index));
+        return result;
+    }
+
+    private int lowerBound(String pattern) {
+        int low = 0;
+        int high = mSuffixes.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (mSuffixes[middle].compareTo(pattern) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private static class Suffix {
+        final String text;
+        final int owner;
+
+        Suffix(String text, int owner) {
+            this.text = text;
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.licht.ytranslator.data;
+
+import com.licht.ytranslator.data.model.HistoryObject;
+import com.licht.ytranslator.data.sources.CacheData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Двухуровневый кэш переводов: сначала перевод ищется в оперативной памяти
+ * ({@link TranslationMemoryCache}), затем в базе данных.
+ * Если перевод не найден ни там, ни там, то его нужно запросить из сети.
+ *
+ * Одновременные поиски одного и того же перевода в базе данных объединяются в один запрос.
+ * Для подбора размера кэша ведётся статистика попаданий на каждом уровне.
+ *
+ * Объект используется только из главного потока.
+ */
+public class TranslationCache {
+
+    private final CacheData mCacheData;
+    private final DatabaseExecutor mDatabaseExecutor;
+
+    private final TranslationMemoryCache mMemoryCache;
+
+    // Переводы, которые ищутся в базе данных в данный момент, и подписчики на результат поиска
+    private final Map<String, List<DataCallback<HistoryObject>>> mPendingLookups = new HashMap<>();
+
+    // Статистика: попадания в память, попадания в базу данных, промахи (нужен запрос в сеть)
+    // и поиски, присоединённые к уже выполняющимся
+    private long mMemoryHitCount = 0;
+    private long mDatabaseHitCount = 0;
+    private long mMissCount = 0;
+    private long mCoalescedCount = 0;
+
+    // Увеличивается при очистке памяти, чтоб не сохранять в память результаты поисков,
+    // начатых до очистки
+    private long mMemoryGeneration = 0;
+
+    public TranslationCache(CacheData cacheData, DatabaseExecutor databaseExecutor, long maxMemorySizeBytes) {
+        super();
+        mCacheData = cacheData;
+        mDatabaseExecutor = databaseExecutor;
+        mMemoryCache = new TranslationMemoryCache(maxMemorySizeBytes);
+    }
+
+    /**
+     * Находит перевод в памяти или в базе данных
+     *
+     * @param word      Переводимый текст
+     * @param direction Направление перевода
+     * @param callback  Получает перевод, или null, если его нет в кэше.
+     *                  При попадании в память вызывается сразу
+     */
+    public void get(String word, String direction, DataCallback<HistoryObject> callback) {
+        final HistoryObject cached = mMemoryCache.get(word, direction);
+        if (cached != null) {
+            ++mMemoryHitCount;
+            callback.onResult(cached);
+            return;
+        }
+
+        final String key = TranslationKey.of(word, direction);
+        List<DataCallback<HistoryObject>> callbacks = mPendingLookups.get(key);
+        if (callbacks != null) {
+            // Этот перевод уже ищется в базе данных, дожидаемся результата
+            ++mCoalescedCount;
+            callbacks.add(callback);
+            return;
+        }
+
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        mPendingLookups.put(key, callbacks);
+
+        final long generation = mMemoryGeneration;
+        // Результат приходит подписчикам и при ошибке чтения (как отсутствие перевода),
+        // поэтому поиск этого перевода не останется "выполняющимся" навсегда
+        mDatabaseExecutor.read(() -> mCacheData.getWordFromCache(word, direction), historyObject -> {
+            if (historyObject != null) {
+                ++mDatabaseHitCount;
+                if (generation == mMemoryGeneration)
+                    mMemoryCache.put(historyObject);
+            } else
+                ++mMissCount;
+
+            for (DataCallback<HistoryObject> pendingCallback : mPendingLookups.remove(key))
+                pendingCallback.onResult(historyObject);
+        });
+    }
+
+    /**
+     * Находит переводы нескольких текстов: сначала в памяти, затем оставшиеся -
+     * одним запросом к базе данных
+     *
+     * @param words     Переводимые тексты
+     * @param direction Направление перевода
+     * @param callback  Получает найденные переводы по переводимому тексту
+     *                  (отсутствующих в кэше текстов в таблице нет)
+     */
+    public void getAll(List<String> words, String direction, DataCallback<Map<String, HistoryObject>> callback) {
+        final Map<String, HistoryObject> found = new HashMap<>();
+        final List<String> missing = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+        for (String word : words) {
+            // Одинаковые тексты ищутся один раз
+            if (!seen.add(word))
+                continue;
+
+            final HistoryObject cached = mMemoryCache.get(word, direction);
+            if (cached != null) {
+                ++mMemoryHitCount;
+                found.put(word, cached);
+            } else
+                missing.add(word);
+        }
+
+        if (missing.isEmpty()) {
+            callback.onResult(found);
+            return;
+        }
+
+        final long generation = mMemoryGeneration;
+        mDatabaseExecutor.read(() -> mCacheData.getWordsFromCache(missing, direction), result -> {
+            // Ошибка чтения считается отсутствием переводов
+            final List<HistoryObject> historyObjects = result != null ? result : new ArrayList<>();
+
+            for (HistoryObject historyObject : historyObjects) {
+                found.put(historyObject.getWord(), historyObject);
+                if (generation == mMemoryGeneration)
+                    mMemoryCache.put(historyObject);
+            }
+
+            mDatabaseHitCount += historyObjects.size();
+            mMissCount += missing.size() - historyObjects.size();
+            callback.onResult(found);
+        });
+    }
+
+    /**
+     * Находит перевод только в памяти, без обращения к базе данных и без учёта в статистике
+     *
+     * @return Перевод, или null, если его нет в памяти
+     */
+    public HistoryObject getFromMemory(String word, String direction) {
+        return mMemoryCache.get(word, direction);
+    }
+
+    /**
+     * Сохраняет в памяти перевод, полученный из сети (в базу данных он записывается отдельно)
+     */
+    public void put(HistoryObject item) {
+        mMemoryCache.put(item);
+    }
+
+    /**
+     * Обновляет избранность перевода, если он хранится в памяти
+     */
+    public void setStarred(String word, String direction, boolean isStarred) {
+        mMemoryCache.setStarred(word, direction, isStarred);
+    }
+
+    /**
+     * Удаляет все переводы из памяти. Вызывается, когда состояние переводов в базе данных
+     * изменилось массово (например, при очистке истории)
+     */
+    public void clearMemory() {
+        ++mMemoryGeneration;
+        mMemoryCache.clear();
+    }
+
+    /**
+     * @return Доля поисков, завершившихся в памяти
+     */
+    public double getMemoryHitRatio() {
+        final long lookups = mMemoryHitCount + mDatabaseHitCount + mMissCount;
+        return lookups == 0 ? 0 : (double) mMemoryHitCount / lookups;
+    }
+
+    /**
+     * @return Доля поисков в базе данных (после промаха в памяти), которые нашли перевод
+     */
+    public double getDatabaseHitRatio() {
+        final long lookups = mDatabaseHitCount + mMissCount;
+        return lookups == 0 ? 0 : (double) mDatabaseHitCount / lookups;
+    }
+
+    public long getMemoryHitCount() {
+        return mMemoryHitCount;
+    }
+
+    public long getDatabaseHitCount() {
+        return mDatabaseHitCount;
+    }
+
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    public long getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    /**
+     * @return Статистика использования кэша в текстовом виде
+     */
+    public String getStatsDescription() {
+        return "memory hits: " + mMemoryHitCount + " (ratio " + getMemoryHitRatio() + ")\n" +
+                "database hits: " + mDatabaseHitCount + " (ratio " + getDatabaseHitRatio() + ")\n" +
+                "misses: " + mMissCount + "\n" +
+                "coalesced lookups: " + mCoalescedCount + "\n" +
+                "memory entries: " + mMemoryCache.size() + ", " + mMemoryCache.getSizeBytes() +
+                " of " + mMemoryCache.getMaxSizeBytes() + " bytes, evicted " +
+                mMemoryCache.getEvictionCount() + "\n";
+    }
+}
@@ -0,0 +1,19 @@
+package com.licht.ytranslator.data;
+
+/**
+ * Ключ перевода в таблицах, индексированных по паре (текст, направление перевода)
+ */
+public final class TranslationKey {
+    private TranslationKey() {
+    }
+
+    /**
+     * @param word      Переводимый текст
+     * @param direction Направление перевода
+     * @return Строковый ключ пары. Направление перевода не содержит переводов строк,
+     * поэтому ключ однозначен
+     */
+    public static String of(String word, String direction) {
+        return direction + '\n' + word;
+    }
+}
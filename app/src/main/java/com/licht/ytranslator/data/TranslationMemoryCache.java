@@ -0,0 +1,110 @@
+package com.licht.ytranslator.data;
+
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный по размеру кэш переводов в оперативной памяти.
+ *
+ * Переводы проиндексированы по паре (текст, направление перевода). Размер перевода оценивается
+ * по длине его строк, при превышении максимального размера удаляются переводы,
+ * которые дольше всего не запрашивались (LRU).
+ *
+ * Объект не потокобезопасен и используется только из главного потока.
+ */
+public class TranslationMemoryCache {
+    // Примерный размер объекта перевода и записи в таблице без учёта строк
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long mMaxSizeBytes;
+
+    // Переводы в порядке от давно запрошенных к недавно запрошенным
+    private final LinkedHashMap<String, HistoryObject> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mSizeBytes = 0;
+
+    private long mEvictionCount = 0;
+
+    public TranslationMemoryCache(long maxSizeBytes) {
+        super();
+        mMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * @return Перевод, или null, если его нет в кэше
+     */
+    public HistoryObject get(String word, String direction) {
+        return mEntries.get(TranslationKey.of(word, direction));
+    }
+
+    /**
+     * Добавляет перевод в кэш, заменяя ранее сохранённый перевод того же текста
+     */
+    public void put(HistoryObject item) {
+        final long size = sizeOf(item);
+        if (size > mMaxSizeBytes)
+            return;
+
+        final HistoryObject previous = mEntries.put(TranslationKey.of(item.getWord(), item.getDirection()), item);
+        if (previous != null)
+            mSizeBytes -= sizeOf(previous);
+        mSizeBytes += size;
+
+        trimToSize();
+    }
+
+    /**
+     * Изменяет избранность перевода, если он есть в кэше
+     */
+    public void setStarred(String word, String direction, boolean isStarred) {
+        final HistoryObject item = mEntries.get(TranslationKey.of(word, direction));
+        if (item == null)
+            return;
+
+        item.setFavorites(isStarred);
+        if (isStarred)
+            item.setInHistory(true);
+    }
+
+    public void clear() {
+        mEntries.clear();
+        mSizeBytes = 0;
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    public long getSizeBytes() {
+        return mSizeBytes;
+    }
+
+    public long getMaxSizeBytes() {
+        return mMaxSizeBytes;
+    }
+
+    public long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    private void trimToSize() {
+        final Iterator<Map.Entry<String, HistoryObject>> iterator = mEntries.entrySet().iterator();
+        while (mSizeBytes > mMaxSizeBytes && iterator.hasNext()) {
+            mSizeBytes -= sizeOf(iterator.next().getValue());
+            iterator.remove();
+            ++mEvictionCount;
+        }
+    }
+
+    private static long sizeOf(HistoryObject item) {
+        // Строки хранятся в UTF-16, по два байта на символ
+        return ENTRY_OVERHEAD_BYTES + 2L * (length(item.getWord()) +
+                length(item.getTranslate()) + length(item.getDirection()));
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+}
@@ -0,0 +1,103 @@
+package com.licht.ytranslator.data;
+
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Промежуточные переводы, полученные во время набора текста.
+ *
+ * Перевод запрашивается после каждой паузы в наборе, поэтому большая часть переводов
+ * относится к недописанному тексту ("h", "he", "hel", ...). Такие переводы хранятся только
+ * здесь и в базу данных не попадают. Перевод записывается, только когда пользователь
+ * начинает с ним работать (убирает клавиатуру, добавляет в избранное, делится им
+ * или открывает словарную статью) - см. {@link #remove(String, String)}.
+ *
+ * Хранится ограниченное количество последних переводов, более старые отбрасываются.
+ * Объект не потокобезопасен и используется только из главного потока.
+ */
+public class TranslationStaging {
+
+    private final int mCapacity;
+
+    // Переводы в порядке получения
+    private final Map<String, HistoryObject> mItems = new LinkedHashMap<>();
+
+    // Статистика за время работы приложения: сколько переводов было получено,
+    // сколько из них было записано, и сколько было отброшено без записи
+    private long mStagedCount = 0;
+    private long mCommittedCount = 0;
+    private long mDiscardedCount = 0;
+
+    public TranslationStaging(int capacity) {
+        super();
+        mCapacity = capacity;
+    }
+
+    /**
+     * Сохраняет промежуточный перевод. Если переводов больше, чем помещается, то самый старый отбрасывается
+     */
+    public void put(HistoryObject item) {
+        ++mStagedCount;
+        final HistoryObject previous = mItems.put(TranslationKey.of(item.getWord(), item.getDirection()), item);
+        if (previous != null)
+            ++mDiscardedCount;
+
+        final Iterator<HistoryObject> iterator = mItems.values().iterator();
+        while (mItems.size() > mCapacity) {
+            iterator.next();
+            iterator.remove();
+            ++mDiscardedCount;
+        }
+    }
+
+    /**
+     * @return Промежуточный перевод, или null, если его нет
+     */
+    public HistoryObject get(String word, String direction) {
+        return mItems.get(TranslationKey.of(word, direction));
+    }
+
+    /**
+     * Забирает перевод для записи в базу данных
+     *
+     * @return Промежуточный перевод, или null, если его нет (например, он уже записан)
+     */
+    public HistoryObject remove(String word, String direction) {
+        final HistoryObject item = mItems.remove(TranslationKey.of(word, direction));
+        if (item != null)
+            ++mCommittedCount;
+        return item;
+    }
+
+    public int size() {
+        return mItems.size();
+    }
+
+    public long getStagedCount() {
+        return mStagedCount;
+    }
+
+    public long getCommittedCount() {
+        return mCommittedCount;
+    }
+
+    /**
+     * @return Количество переводов, которые были отброшены и не записаны в базу данных
+     */
+    public long getAvoidedWritesCount() {
+        return mDiscardedCount;
+    }
+
+    /**
+     * @return Статистика в текстовом виде
+     */
+    public String getStatsDescription() {
+        return "staged translations: " + mStagedCount + "\n" +
+                "committed: " + mCommittedCount + "\n" +
+                "avoided writes: " + mDiscardedCount + "\n" +
+                "waiting: " + mItems.size() + "\n";
+    }
+}
@@ -0,0 +1,43 @@
+package com.licht.ytranslator.data.endpoint;
+
+import com.google.gson.stream.JsonReader;
+import com.licht.ytranslator.data.model.DictionaryResult;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
+import com.licht.ytranslator.utils.DictionaryStreamParser;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Разбирает ответ Яндекс Словаря потоково, напрямую из тела ответа, в {@link DictionaryResult}.
+ * Остальные типы ответов обрабатываются следующими конвертерами
+ */
+public class DictionaryResultConverterFactory extends Converter.Factory {
+    private final DictionaryIdGenerator idGenerator;
+
+    public DictionaryResultConverterFactory(DictionaryIdGenerator idGenerator) {
+        super();
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+                                                            Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        if (type != DictionaryResult.class)
+            return null;
+
+        return body -> {
+            try {
+                final JsonReader reader = new JsonReader(body.charStream());
+                return new DictionaryResult(DictionaryStreamParser.parse(reader, idGenerator));
+            } finally {
+                body.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.licht.ytranslator.data.endpoint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Отдаёт ответы на повторные запросы из {@link HttpDiskCache}, не обращаясь к сети.
+ *
+ * Кэшируются только запросы, помеченные заголовком {@link #CACHEABLE} (в интерфейсе API):
+ * их ответы не меняются для одних и тех же параметров. Ответы, которые меняются на сервере,
+ * помечаются заголовком {@link #CACHEABLE_MAX_AGE} со сроком хранения в секундах: после него
+ * запрос снова отправляется в сеть, а новый ответ заменяет сохранённый. Стандартный кэш OkHttp
+ * для этого не подходит, т.к. не сохраняет POST запросы, а сервер не присылает заголовков кэширования.
+ *
+ * Ключ запроса строится по методу, адресу и параметрам запроса (включая параметры формы в теле POST
+ * запроса), отсортированным по имени. Ключ API в ключ кэша не входит.
+ */
+public class DiskCacheInterceptor implements Interceptor {
+    private static final String CACHEABLE_HEADER = "X-Disk-Cache";
+
+    private static final String MAX_AGE_PREFIX = "max-age=";
+
+    // Заголовок для методов API, ответы которых нужно кэшировать на диске
+    public static final String CACHEABLE = CACHEABLE_HEADER + ": enabled";
+
+    // Заголовок для методов API, ответы которых нужно кэшировать на ограниченный срок.
+    // После заголовка указывается срок хранения в секундах
+    public static final String CACHEABLE_MAX_AGE = CACHEABLE_HEADER + ": " + MAX_AGE_PREFIX;
+
+    // Параметры, не влияющие на содержимое ответа
+    private static final String PARAM_API_KEY = "key";
+
+    private final HttpDiskCache mCache;
+
+    public DiskCacheInterceptor(HttpDiskCache cache) {
+        super();
+        mCache = cache;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        final String cacheHeader = request.header(CACHEABLE_HEADER);
+        if (cacheHeader == null)
+            return chain.proceed(request);
+
+        final Request networkRequest = request.newBuilder().removeHeader(CACHEABLE_HEADER).build();
+        final String key = buildKey(networkRequest);
+
+        final HttpDiskCache.Entry cached = mCache.get(key, parseMaxAgeMillis(cacheHeader));
+        if (cached != null)
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(
+                            cached.contentType == null ? null : MediaType.parse(cached.contentType),
+                            cached.body))
+                    .build();
+
+        final Response response = chain.proceed(networkRequest);
+        if (!response.isSuccessful() || response.body() == null)
+            return response;
+
+        // Тело ответа читается целиком, чтоб сохранить его и отдать дальше
+        final ResponseBody body = response.body();
+        final MediaType contentType = body.contentType();
+        final byte[] bytes = body.bytes();
+        mCache.put(key, new HttpDiskCache.Entry(contentType == null ? null : contentType.toString(), bytes));
+
+        return response.newBuilder()
+                .body(ResponseBody.create(contentType, bytes))
+                .build();
+    }
+
+    /**
+     * @param cacheHeader Значение заголовка кэширования
+     * @return Срок хранения ответа. Без срока (или с неверным сроком) ответ хранится бессрочно
+     */
+    static long parseMaxAgeMillis(String cacheHeader) {
+        if (!cacheHeader.startsWith(MAX_AGE_PREFIX))
+            return Long.MAX_VALUE;
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(cacheHeader.substring(MAX_AGE_PREFIX.length())));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return Ключ запроса, пригодный для использования в качестве имени файла
+     */
+    static String buildKey(Request request) throws IOException {
+        final HttpUrl url = request.url();
+
+        final List<String> params = new ArrayList<>();
+        for (String name : url.queryParameterNames())
+            if (!PARAM_API_KEY.equals(name))
+                for (String value : url.queryParameterValues(name))
+                    params.add(name + '=' + value);
+
+        final StringBuilder key = new StringBuilder()
+                .append(request.method()).append(' ')
+                .append(url.scheme()).append("://").append(url.host()).append(':').append(url.port())
+                .append(url.encodedPath());
+
+        final RequestBody body = request.body();
+        if (body instanceof FormBody) {
+            final FormBody form = (FormBody) body;
+            for (int i = 0; i < form.size(); ++i)
+                if (!PARAM_API_KEY.equals(form.name(i)))
+                    params.add(form.name(i) + '=' + form.value(i));
+        } else if (body != null) {
+            // Тело запроса неизвестного формата учитывается целиком
+            final Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            key.append(' ').append(buffer.sha1().hex());
+        }
+
+        // Порядок параметров не влияет на ответ
+        Collections.sort(params);
+        for (String param : params)
+            key.append('\n').append(param);
+
+        return ByteString.encodeUtf8(key.toString()).sha1().hex();
+    }
+}
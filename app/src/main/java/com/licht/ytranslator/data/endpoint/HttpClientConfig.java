@@ -0,0 +1,90 @@
+package com.licht.ytranslator.data.endpoint;
+
+/**
+ * Параметры HTTP клиента, общего для API Яндекс Переводчика и Яндекс Словаря
+ */
+public class HttpClientConfig {
+    // Значения по умолчанию рассчитаны на частые короткие запросы во время набора текста
+    private static final long DEFAULT_CONNECT_TIMEOUT_MS = 10_000;
+    private static final long DEFAULT_READ_TIMEOUT_MS = 15_000;
+    private static final long DEFAULT_WRITE_TIMEOUT_MS = 15_000;
+
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 4;
+    private static final long DEFAULT_KEEP_ALIVE_MS = 5 * 60 * 1000;
+
+    private static final int DEFAULT_MAX_REQUESTS = 16;
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 4;
+
+    private static final long DEFAULT_DISK_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private final long connectTimeoutMs;
+    private final long readTimeoutMs;
+    private final long writeTimeoutMs;
+
+    // Сколько неиспользуемых соединений держать открытыми, и сколько времени
+    private final int maxIdleConnections;
+    private final long keepAliveMs;
+
+    // Ограничения на количество одновременно выполняющихся запросов
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+
+    // Максимальный размер дискового кэша ответов
+    private final long diskCacheSizeBytes;
+
+    public HttpClientConfig(long connectTimeoutMs, long readTimeoutMs, long writeTimeoutMs,
+                            int maxIdleConnections, long keepAliveMs,
+                            int maxRequests, int maxRequestsPerHost,
+                            long diskCacheSizeBytes) {
+        super();
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.writeTimeoutMs = writeTimeoutMs;
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveMs = keepAliveMs;
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.diskCacheSizeBytes = diskCacheSizeBytes;
+    }
+
+    /**
+     * @return Параметры клиента, используемые приложением по умолчанию
+     */
+    public static HttpClientConfig createDefault() {
+        return new HttpClientConfig(DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_READ_TIMEOUT_MS,
+                DEFAULT_WRITE_TIMEOUT_MS, DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_MS,
+                DEFAULT_MAX_REQUESTS, DEFAULT_MAX_REQUESTS_PER_HOST, DEFAULT_DISK_CACHE_SIZE_BYTES);
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public long getWriteTimeoutMs() {
+        return writeTimeoutMs;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public long getDiskCacheSizeBytes() {
+        return diskCacheSizeBytes;
+    }
+}
@@ -0,0 +1,266 @@
+package com.licht.ytranslator.data.endpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * Ограниченный по размеру дисковый кэш ответов API.
+ *
+ * Каждый ответ хранится в отдельном файле, имя которого - ключ запроса. Вместе с ответом хранится
+ * время его сохранения, чтоб ответы с ограниченным сроком хранения можно было запрашивать заново.
+ * При превышении максимального размера удаляются ответы, которые дольше всего не использовались (LRU).
+ * Порядок использования сохраняется между запусками через время изменения файлов.
+ *
+ * Методы синхронизированы, т.к. кэш используется из потоков OkHttp.
+ */
+public class HttpDiskCache {
+    // Расширение временного файла, в который записывается ответ до его переименования
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final long mMaxSizeBytes;
+
+    // Ключи ответов и размеры их файлов, в порядке от давно использованных к недавно использованным
+    private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mSizeBytes = 0;
+
+    private boolean mIsInitialized = false;
+
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+    private long mExpiredCount = 0;
+    private long mWriteCount = 0;
+    private long mEvictionCount = 0;
+
+    public HttpDiskCache(File directory, long maxSizeBytes) {
+        super();
+        mDirectory = directory;
+        mMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Находит ответ в кэше
+     *
+     * @param key Ключ запроса
+     * @return Сохранённый ответ, или null, если его нет в кэше
+     */
+    public Entry get(String key) {
+        return get(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * Находит ответ в кэше, если он сохранён не раньше указанного срока
+     *
+     * @param key          Ключ запроса
+     * @param maxAgeMillis Максимальный возраст ответа. Более старый ответ считается отсутствующим
+     *                     и заменяется новым при следующем сохранении
+     * @return Сохранённый ответ, или null, если его нет в кэше или он устарел
+     */
+    public synchronized Entry get(String key, long maxAgeMillis) {
+        initialize();
+
+        // Обращение через get() перемещает ответ в конец очереди LRU
+        if (mEntries.get(key) == null) {
+            ++mMissCount;
+            return null;
+        }
+
+        final File file = new File(mDirectory, key);
+        try {
+            final BufferedSource source = Okio.buffer(Okio.source(file));
+            try {
+                final long savedTime = Long.parseLong(source.readUtf8LineStrict());
+                if (System.currentTimeMillis() - savedTime >= maxAgeMillis) {
+                    ++mExpiredCount;
+                    ++mMissCount;
+                    return null;
+                }
+
+                final String contentType = source.readUtf8LineStrict();
+                final byte[] body = source.readByteArray();
+
+                // Время изменения файла используется как время последнего использования
+                file.setLastModified(System.currentTimeMillis());
+                ++mHitCount;
+                return new Entry(contentType.isEmpty() ? null : contentType, body);
+            } finally {
+                source.close();
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Файл был повреждён, удалён или сохранён в формате без времени сохранения,
+            // считаем что ответа в кэше нет
+            remove(key);
+            ++mMissCount;
+            return null;
+        }
+    }
+
+    /**
+     * Сохраняет ответ в кэш
+     *
+     * @param key   Ключ запроса
+     * @param entry Ответ
+     */
+    public synchronized void put(String key, Entry entry) {
+        initialize();
+
+        if (entry.body.length > mMaxSizeBytes)
+            return;
+
+        final File file = new File(mDirectory, key);
+        final File tempFile = new File(mDirectory, key + TEMP_SUFFIX);
+        try {
+            final BufferedSink sink = Okio.buffer(Okio.sink(tempFile));
+            try {
+                sink.writeDecimalLong(System.currentTimeMillis()).writeByte('\n');
+                sink.writeUtf8(entry.contentType == null ? "" : entry.contentType).writeByte('\n');
+                sink.write(entry.body);
+            } finally {
+                sink.close();
+            }
+
+            // Ответ становится виден только после полной записи
+            if (!tempFile.renameTo(file))
+                throw new IOException("Unable to rename " + tempFile);
+        } catch (IOException e) {
+            tempFile.delete();
+            return;
+        }
+
+        final long size = file.length();
+        final Long previousSize = mEntries.put(key, size);
+        mSizeBytes += size - (previousSize == null ? 0 : previousSize);
+        ++mWriteCount;
+
+        trimToSize();
+    }
+
+    /**
+     * Удаляет все ответы из кэша
+     */
+    public synchronized void clear() {
+        initialize();
+
+        for (String key : mEntries.keySet())
+            new File(mDirectory, key).delete();
+        mEntries.clear();
+        mSizeBytes = 0;
+    }
+
+    public synchronized long getSizeBytes() {
+        return mSizeBytes;
+    }
+
+    public long getMaxSizeBytes() {
+        return mMaxSizeBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return Количество ответов, найденных в кэше, но устаревших (учитываются и как промахи)
+     */
+    public synchronized long getExpiredCount() {
+        return mExpiredCount;
+    }
+
+    public synchronized long getWriteCount() {
+        return mWriteCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * @return Статистика использования кэша в текстовом виде
+     */
+    public synchronized String getStatsDescription() {
+        return "hits: " + mHitCount + "\n" +
+                "misses: " + mMissCount + "\n" +
+                "expired: " + mExpiredCount + "\n" +
+                "writes: " + mWriteCount + "\n" +
+                "evictions: " + mEvictionCount + "\n" +
+                "size: " + mSizeBytes + " of " + mMaxSizeBytes + " bytes\n";
+    }
+
+    /**
+     * Читает список сохранённых ответов. Выполняется при первом обращении к кэшу,
+     * чтоб не обращаться к диску при создании объекта
+     */
+    private void initialize() {
+        if (mIsInitialized)
+            return;
+        mIsInitialized = true;
+
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs())
+            return;
+
+        final File[] files = mDirectory.listFiles();
+        if (files == null)
+            return;
+
+        // Файлы добавляются от давно использованных к недавно использованным
+        Arrays.sort(files, (first, second) -> {
+            final long difference = first.lastModified() - second.lastModified();
+            return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+        });
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                // Запись ответа была прервана
+                file.delete();
+                continue;
+            }
+
+            mEntries.put(file.getName(), file.length());
+            mSizeBytes += file.length();
+        }
+
+        trimToSize();
+    }
+
+    private void remove(String key) {
+        final Long size = mEntries.remove(key);
+        if (size != null)
+            mSizeBytes -= size;
+        new File(mDirectory, key).delete();
+    }
+
+    private void trimToSize() {
+        final Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSizeBytes > mMaxSizeBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            new File(mDirectory, eldest.getKey()).delete();
+            mSizeBytes -= eldest.getValue();
+            iterator.remove();
+            ++mEvictionCount;
+        }
+    }
+
+    /**
+     * Сохранённый ответ: тип содержимого и тело
+     */
+    public static class Entry {
+        public final String contentType;
+        public final byte[] body;
+
+        public Entry(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.licht.ytranslator.data.endpoint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Объединяет одинаковые одновременно выполняющиеся запросы к API в один.
+ *
+ * Запросы считаются одинаковыми, если совпадает их ключ (метод API, текст, направление перевода,
+ * локализация UI). Если запрос с таким ключом уже выполняется, то новый запрос не отправляется,
+ * а присоединяется к выполняющемуся и получает тот же ответ.
+ *
+ * Тело ответа получает каждый подписчик. Если тело изменяемое, то запрос создаётся с функцией
+ * копирования ({@link BodyCopier}): первый подписчик получает разобранное тело, остальные — его копии.
+ * Без функции копирования все подписчики получают один и тот же объект, и изменять его нельзя.
+ *
+ * Отмена запроса отсоединяет от общего запроса только отменившего. Когда от общего запроса
+ * отсоединяются все подписчики, он отменяется в сети и следующий такой же запрос отправляется заново.
+ */
+public class SingleFlight {
+
+    // Выполняющиеся запросы по ключам
+    private final Map<String, Flight<?>> mFlights = new HashMap<>();
+
+    // Статистика: сколько запросов было отправлено в сеть, и сколько присоединилось к уже выполняющимся
+    private long mStartedCount = 0;
+    private long mSharedCount = 0;
+
+    /**
+     * Фабрика запросов Retrofit. Вызывается, только если одинакового запроса не выполняется
+     */
+    public interface CallFactory<T> {
+        Call<T> create();
+    }
+
+    /**
+     * Создаёт независимую копию тела ответа для очередного подписчика
+     */
+    public interface BodyCopier<T> {
+        T copy(T body);
+    }
+
+    /**
+     * Составляет ключ запроса
+     *
+     * @param endpoint  Метод API
+     * @param text      Переводимый текст
+     * @param direction Направление перевода
+     * @param ui        Локализация UI (пустая строка, если не используется)
+     */
+    public static String key(String endpoint, String text, String direction, String ui) {
+        return endpoint + '\u0000' + direction + '\u0000' + ui + '\u0000' + text;
+    }
+
+    /**
+     * Оборачивает запрос так, что при выполнении (enqueue) он объединяется
+     * с одинаковыми выполняющимися запросами
+     *
+     * Тело ответа передаётся всем подписчикам одним объектом и не должно изменяться
+     *
+     * @param key     Ключ запроса
+     * @param factory Фабрика, создающая запрос к API
+     * @return Запрос, который можно использовать так же, как запрос Retrofit
+     */
+    public <T> Call<T> call(String key, CallFactory<T> factory) {
+        return call(key, factory, null);
+    }
+
+    /**
+     * Оборачивает запрос так, что при выполнении (enqueue) он объединяется
+     * с одинаковыми выполняющимися запросами
+     *
+     * @param key     Ключ запроса
+     * @param factory Фабрика, создающая запрос к API
+     * @param copier  Функция копирования тела ответа для присоединившихся подписчиков
+     *                (null, если тело не изменяется и может быть общим)
+     * @return Запрос, который можно использовать так же, как запрос Retrofit
+     */
+    public <T> Call<T> call(String key, CallFactory<T> factory, BodyCopier<T> copier) {
+        return new SharedCall<>(this, key, factory, copier);
+    }
+
+    public synchronized long getStartedCount() {
+        return mStartedCount;
+    }
+
+    /**
+     * @return Количество запросов, которые не были отправлены в сеть благодаря объединению
+     */
+    public synchronized long getSharedCount() {
+        return mSharedCount;
+    }
+
+    /**
+     * @return Статистика объединения запросов в текстовом виде
+     */
+    public synchronized String getStatsDescription() {
+        return "started requests: " + mStartedCount + "\n" +
+                "shared requests: " + mSharedCount + "\n" +
+                "in flight: " + mFlights.size() + "\n";
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> void subscribe(SharedCall<T> subscriber) {
+        Flight<T> flight = (Flight<T>) mFlights.get(subscriber.key);
+        if (flight != null) {
+            ++mSharedCount;
+            flight.subscribers.add(subscriber);
+            return;
+        }
+
+        flight = new Flight<>(subscriber.key, subscriber.copier);
+        flight.subscribers.add(subscriber);
+        mFlights.put(subscriber.key, flight);
+        ++mStartedCount;
+
+        flight.call = subscriber.factory.create();
+        flight.call.enqueue(flight);
+    }
+
+    private synchronized void unsubscribe(SharedCall<?> subscriber) {
+        final Flight<?> flight = mFlights.get(subscriber.key);
+        if (flight == null || !flight.subscribers.remove(subscriber) || !flight.subscribers.isEmpty())
+            return;
+
+        // Результат больше никому не нужен
+        mFlights.remove(flight.key);
+        flight.call.cancel();
+    }
+
+    /**
+     * Завершает выполнение запроса
+     *
+     * @return Подписчики, которым нужно передать результат
+     */
+    private synchronized <T> List<SharedCall<T>> complete(Flight<T> flight) {
+        if (mFlights.get(flight.key) == flight)
+            mFlights.remove(flight.key);
+        return new ArrayList<>(flight.subscribers);
+    }
+
+    /**
+     * Запрос, выполняющийся в сети, и его подписчики
+     */
+    private class Flight<T> implements Callback<T> {
+        final String key;
+        final BodyCopier<T> copier;
+        final List<SharedCall<T>> subscribers = new ArrayList<>();
+
+        // Запрос, выполняющийся в сети
+        Call<T> call = null;
+
+        Flight(String key, BodyCopier<T> copier) {
+            this.key = key;
+            this.copier = copier;
+        }
+
+        @Override
+        public void onResponse(Call<T> call, Response<T> response) {
+            boolean isBodyDelivered = false;
+            for (SharedCall<T> subscriber : complete(this)) {
+                if (subscriber.isCanceled())
+                    continue;
+
+                subscriber.callback.onResponse(subscriber,
+                        isBodyDelivered ? copyResponse(response) : response);
+                isBodyDelivered = true;
+            }
+        }
+
+        @Override
+        public void onFailure(Call<T> call, Throwable t) {
+            for (SharedCall<T> subscriber : complete(this))
+                if (!subscriber.isCanceled())
+                    subscriber.callback.onFailure(subscriber, t);
+        }
+
+        private Response<T> copyResponse(Response<T> response) {
+            if (copier == null || !response.isSuccessful() || response.body() == null)
+                return response;
+            return Response.success(copier.copy(response.body()), response.raw());
+        }
+    }
+
+    /**
+     * Запрос подписчика. Для вызывающего кода выглядит как обычный запрос Retrofit
+     */
+    private static class SharedCall<T> implements Call<T> {
+        private final SingleFlight singleFlight;
+        final String key;
+        final CallFactory<T> factory;
+        final BodyCopier<T> copier;
+
+        Callback<T> callback = null;
+
+        private volatile boolean isExecuted = false;
+        private volatile boolean isCanceled = false;
+
+        SharedCall(SingleFlight singleFlight, String key, CallFactory<T> factory, BodyCopier<T> copier) {
+            this.singleFlight = singleFlight;
+            this.key = key;
+            this.factory = factory;
+            this.copier = copier;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            // Синхронные запросы не объединяются
+            markExecuted();
+            return factory.create().execute();
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            markExecuted();
+            this.callback = callback;
+            singleFlight.subscribe(this);
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return isExecuted;
+        }
+
+        @Override
+        public void cancel() {
+            isCanceled = true;
+            singleFlight.unsubscribe(this);
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return isCanceled;
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new SharedCall<>(singleFlight, key, factory, copier);
+        }
+
+        @Override
+        public Request request() {
+            return factory.create().request();
+        }
+
+        private synchronized void markExecuted() {
+            if (isExecuted)
+                throw new IllegalStateException("Already executed.");
+            isExecuted = true;
+        }
+    }
+}
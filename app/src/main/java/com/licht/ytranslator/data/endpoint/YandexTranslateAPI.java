@@ -4,20 +4,37 @@ package com.licht.ytranslator.data.endpoint;
 import com.google.gson.JsonObject;
 import com.licht.ytranslator.data.model.Result;
 
+import java.util.List;
 import java.util.Map;
 
 import retrofit2.Call;
+import retrofit2.http.Field;
 import retrofit2.http.FieldMap;
 import retrofit2.http.FormUrlEncoded;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.Query;
 
 public interface YandexTranslateAPI {
+    // Срок хранения списка языков в дисковом кэше ответов
+    long LANGUAGES_MAX_AGE_SECONDS = 24 * 60 * 60;
+
     @FormUrlEncoded
     @POST("/api/v1.5/tr.json/translate")
     Call<Result> translate(@FieldMap Map<String, String> map);
 
+    // Переводит сразу несколько текстов: каждый передаётся отдельным полем text,
+    // переводы возвращаются в том же порядке
+    @FormUrlEncoded
+    @POST("/api/v1.5/tr.json/translate")
+    Call<Result> translateBatch(@Field("key") String key,
+                                @Field("lang") String lang,
+                                @Field("text") List<String> texts);
+
+    // Список языков меняется на сервере, поэтому кэшируется на диске на ограниченный срок:
+    // обновление при запуске обращается к серверу не чаще раза за этот срок
     @GET("/api/v1.5/tr.json/getLangs")
+    @Headers(DiskCacheInterceptor.CACHEABLE_MAX_AGE + LANGUAGES_MAX_AGE_SECONDS)
     Call<JsonObject> getData(@Query("key") String key, @Query("ui") String ui);
 }
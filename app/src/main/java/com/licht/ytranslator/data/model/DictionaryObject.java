@@ -19,6 +19,11 @@ public class DictionaryObject extends RealmObject {
     // Различные значения слова
     private RealmList<WordObject> dictionaries;
 
+    // Время последнего обращения к статье (в миллисекундах) и примерный размер статьи в базе данных.
+    // Используются для вытеснения давно не использованных статей при превышении размера кэша
+    private long lastAccessTime;
+    private long sizeBytes;
+
     public DictionaryObject() {
         super();
     }
@@ -53,4 +58,20 @@ public class DictionaryObject extends RealmObject {
     public void setDictionaries(RealmList<WordObject> dictionaries) {
         this.dictionaries = dictionaries;
     }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
 }
@@ -0,0 +1,41 @@
+package com.licht.ytranslator.data.model;
+
+import io.realm.RealmList;
+
+/** Обёртка над результатом запроса к Яндекс Словарю, разобранным из ответа сервера */
+public class DictionaryResult {
+    private final RealmList<WordObject> dictionaries;
+
+    public DictionaryResult(RealmList<WordObject> dictionaries) {
+        this.dictionaries = dictionaries;
+    }
+
+    public RealmList<WordObject> getDictionaries() {
+        return dictionaries;
+    }
+
+    /**
+     * Создаёт независимую копию результата. Копии значений сохраняют идентификаторы,
+     * т.к. описывают те же записи словарной статьи
+     */
+    public DictionaryResult copy() {
+        final RealmList<WordObject> wordObjects = new RealmList<>();
+        for (WordObject wordObject : dictionaries) {
+            final RealmList<WordMeaningObject> meaningObjects = new RealmList<>();
+            for (WordMeaningObject meaningObject : wordObject.getWordMeaningObjects()) {
+                final RealmList<ExampleObject> exampleObjects = new RealmList<>();
+                for (ExampleObject exampleObject : meaningObject.getExampleObjects())
+                    exampleObjects.add(new ExampleObject(exampleObject.getPhrase(),
+                            exampleObject.getTranslates()));
+
+                meaningObjects.add(new WordMeaningObject(meaningObject.getSynonimes(),
+                        meaningObject.getMeanings(), exampleObjects,
+                        meaningObject.getText(), meaningObject.getPos()));
+            }
+
+            wordObjects.add(new WordObject(wordObject.getId(), wordObject.getText(),
+                    wordObject.getTrans(), wordObject.getType(), meaningObjects));
+        }
+        return new DictionaryResult(wordObjects);
+    }
+}
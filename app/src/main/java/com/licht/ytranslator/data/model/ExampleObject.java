@@ -1,38 +1,68 @@
 package com.licht.ytranslator.data.model;
 
-import io.realm.RealmList;
+import java.util.List;
+
 import io.realm.RealmObject;
+import io.realm.RealmResults;
+import io.realm.annotations.Index;
+import io.realm.annotations.LinkingObjects;
 
 /**
  * Обёртка над примерами использованиями фразы.
  * Получаются через API Яндекс Словаря.
  */
 public class ExampleObject extends RealmObject {
-    private StringWrapper phrase;
-    private RealmList<StringWrapper> translates;
+    private String phrase;
+    // Переводы примера хранятся упакованными в одну строку (см. PackedStrings)
+    private String translates;
+
+    // Ключ содержимого: одинаковые примеры хранятся в базе данных один раз (см. DictionaryInterner)
+    @Index
+    private String contentKey;
+
+    // Использования слов, в которые входит этот пример (обратная связь, не хранится в базе данных)
+    @LinkingObjects("exampleObjects")
+    private final RealmResults<WordMeaningObject> wordMeaningObjects = null;
 
     public ExampleObject() {
         super();
     }
 
-    public ExampleObject(StringWrapper phrase, RealmList<StringWrapper> translates) {
+    public ExampleObject(String phrase, List<String> translates) {
         this.phrase = phrase;
-        this.translates = translates;
+        this.translates = PackedStrings.pack(translates);
     }
 
-    public StringWrapper getPhrase() {
+    public String getPhrase() {
         return phrase;
     }
 
-    public void setPhrase(StringWrapper phrase) {
+    public void setPhrase(String phrase) {
         this.phrase = phrase;
     }
 
-    public RealmList<StringWrapper> getTranslates() {
-        return translates;
+    public List<String> getTranslates() {
+        return PackedStrings.unpack(translates);
+    }
+
+    public void setTranslates(List<String> translates) {
+        this.translates = PackedStrings.pack(translates);
+    }
+
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    public void setContentKey(String contentKey) {
+        this.contentKey = contentKey;
     }
 
-    public void setTranslates(RealmList<StringWrapper> translates) {
-        this.translates = translates;
+    /**
+     * Проверяет, ссылается ли на объект какой-либо другой объект базы данных.
+     * Объекты без ссылок остаются после неполного удаления словарных статей и удаляются при очистке кэша.
+     * Имеет смысл только для управляемых (managed) объектов
+     */
+    public boolean isReferenced() {
+        return wordMeaningObjects != null && !wordMeaningObjects.isEmpty();
     }
 }
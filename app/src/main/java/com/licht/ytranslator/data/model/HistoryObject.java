@@ -18,10 +18,14 @@ public class HistoryObject extends RealmObject {
 
     private String translate;
     // True, если перевод попал в историю переводов. Иначе False.
+    // Индексы флагов позволяют выбирать историю и избранное, не просматривая весь кэш переводов
+    @Index
     private boolean inHistory;
     // True, если перевод был добавлен в избранное. Иначе False
+    @Index
     private boolean isFavorites;
-    // Время кэширования этого перевода
+    // Время кэширования этого перевода. Индекс используется при постраничном чтении истории
+    @Index
     private Date firstUsingDate;
 
     public HistoryObject() {
@@ -0,0 +1,56 @@
+package com.licht.ytranslator.data.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Упаковывает список строк в одну строку для хранения в базе данных.
+ *
+ * Realm (в используемой версии) не поддерживает списки строк, а хранение каждой строки
+ * отдельным объектом многократно увеличивает размер базы данных и количество объектов,
+ * создаваемых при копировании словарной статьи из базы данных.
+ */
+public final class PackedStrings {
+    // Элементы разделяются управляющим символом "разделитель элементов",
+    // который не встречается в текстах словаря
+    private static final char SEPARATOR = '\u001F';
+
+    private PackedStrings() {
+    }
+
+    /**
+     * @param strings Список строк (может быть null)
+     * @return Строка, из которой {@link #unpack(String)} восстанавливает список
+     */
+    public static String pack(List<String> strings) {
+        if (strings == null || strings.isEmpty())
+            return "";
+
+        final StringBuilder builder = new StringBuilder();
+        for (String string : strings) {
+            if (builder.length() > 0)
+                builder.append(SEPARATOR);
+            builder.append(string.replace(SEPARATOR, ' '));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param packed Строка, полученная из {@link #pack(List)} (может быть null)
+     * @return Список строк
+     */
+    public static List<String> unpack(String packed) {
+        final List<String> strings = new ArrayList<>();
+        if (packed == null || packed.isEmpty())
+            return strings;
+
+        int start = 0;
+        int end;
+        while ((end = packed.indexOf(SEPARATOR, start)) >= 0) {
+            strings.add(packed.substring(start, end));
+            start = end + 1;
+        }
+        strings.add(packed.substring(start));
+        return strings;
+    }
+}
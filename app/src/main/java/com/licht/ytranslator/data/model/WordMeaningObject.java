@@ -1,7 +1,12 @@
 package com.licht.ytranslator.data.model;
 
+import java.util.List;
+
 import io.realm.RealmList;
 import io.realm.RealmObject;
+import io.realm.RealmResults;
+import io.realm.annotations.Index;
+import io.realm.annotations.LinkingObjects;
 
 /**
  * Объект, хранящий информация об одном из использований слова, вместе с дополнительной информацией
@@ -9,43 +14,53 @@ import io.realm.RealmObject;
  */
 public class WordMeaningObject extends RealmObject {
 
-    private RealmList<StringWrapper> synonimes;
-    private RealmList<StringWrapper> meanings;
+    // Синонимы и значения хранятся упакованными в одну строку (см. PackedStrings)
+    private String synonimes;
+    private String meanings;
     private RealmList<ExampleObject> exampleObjects;
     private String text;
     private String pos;
 
+    // Ключ содержимого: одинаковые использования хранятся в базе данных один раз
+    // и используются всеми статьями, в которые входят (см. DictionaryInterner)
+    @Index
+    private String contentKey;
+
+    // Значения слов, в которые входит это использование (обратная связь, не хранится в базе данных)
+    @LinkingObjects("wordMeaningObjects")
+    private final RealmResults<WordObject> wordObjects = null;
+
     public WordMeaningObject() {
         super();
     }
 
-    public WordMeaningObject(RealmList<StringWrapper> synonimes,
-                             RealmList<StringWrapper> meanings,
+    public WordMeaningObject(List<String> synonimes,
+                             List<String> meanings,
                              RealmList<ExampleObject> exampleObjects,
                              String text,
                              String pos)
     {
-        this.synonimes = synonimes;
-        this.meanings = meanings;
+        this.synonimes = PackedStrings.pack(synonimes);
+        this.meanings = PackedStrings.pack(meanings);
         this.exampleObjects = exampleObjects;
         this.text = text;
         this.pos = pos;
     }
 
-    public RealmList<StringWrapper> getSynonimes() {
-        return synonimes;
+    public List<String> getSynonimes() {
+        return PackedStrings.unpack(synonimes);
     }
 
-    public void setSynonimes(RealmList<StringWrapper> synonimes) {
-        this.synonimes = synonimes;
+    public void setSynonimes(List<String> synonimes) {
+        this.synonimes = PackedStrings.pack(synonimes);
     }
 
-    public RealmList<StringWrapper> getMeanings() {
-        return meanings;
+    public List<String> getMeanings() {
+        return PackedStrings.unpack(meanings);
     }
 
-    public void setMeanings(RealmList<StringWrapper> meanings) {
-        this.meanings = meanings;
+    public void setMeanings(List<String> meanings) {
+        this.meanings = PackedStrings.pack(meanings);
     }
 
     public RealmList<ExampleObject> getExampleObjects() {
@@ -71,4 +86,21 @@ public class WordMeaningObject extends RealmObject {
     public void setPos(String pos) {
         this.pos = pos;
     }
+
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    public void setContentKey(String contentKey) {
+        this.contentKey = contentKey;
+    }
+
+    /**
+     * Проверяет, ссылается ли на объект какой-либо другой объект базы данных.
+     * Объекты без ссылок остаются после неполного удаления словарных статей и удаляются при очистке кэша.
+     * Имеет смысл только для управляемых (managed) объектов
+     */
+    public boolean isReferenced() {
+        return wordObjects != null && !wordObjects.isEmpty();
+    }
 }
@@ -2,6 +2,8 @@ package com.licht.ytranslator.data.model;
 
 import io.realm.RealmList;
 import io.realm.RealmObject;
+import io.realm.RealmResults;
+import io.realm.annotations.LinkingObjects;
 import io.realm.annotations.PrimaryKey;
 
 public class WordObject extends RealmObject {
@@ -12,6 +14,10 @@ public class WordObject extends RealmObject {
     private String type;
     private RealmList<WordMeaningObject> wordMeaningObjects;
 
+    // Словарные статьи, в которые входит это значение (обратная связь, не хранится в базе данных)
+    @LinkingObjects("dictionaries")
+    private final RealmResults<DictionaryObject> dictionaryObjects = null;
+
     public WordObject() {
         super();
     }
@@ -67,4 +73,13 @@ public class WordObject extends RealmObject {
     public void setWordMeaningObjects(RealmList<WordMeaningObject> wordMeaningObjects) {
         this.wordMeaningObjects = wordMeaningObjects;
     }
+
+    /**
+     * Проверяет, ссылается ли на объект какой-либо другой объект базы данных.
+     * Объекты без ссылок остаются после неполного удаления словарных статей и удаляются при очистке кэша.
+     * Имеет смысл только для управляемых (managed) объектов
+     */
+    public boolean isReferenced() {
+        return dictionaryObjects != null && !dictionaryObjects.isEmpty();
+    }
 }
@@ -0,0 +1,83 @@
+package com.licht.ytranslator.data.sources;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Выдаёт идентификаторы словарных статей блоками.
+ *
+ * Хранилище содержит только верхнюю границу зарезервированного блока: все идентификаторы
+ * не больше неё могли быть выданы. Границу нужно сохранить один раз на блок, а идентификаторы
+ * внутри блока выдаются атомарным счётчиком без блокировок и обращений к хранилищу.
+ *
+ * После перезапуска процесса выдача начинается за сохранённой границей, поэтому
+ * недовыданные идентификаторы последнего блока пропускаются, но повторно не выдаются.
+ */
+public class BlockIdGenerator implements DictionaryIdGenerator {
+
+    /**
+     * Хранилище верхней границы зарезервированных идентификаторов
+     */
+    public interface Storage {
+        /**
+         * @return Сохранённая граница или 0, если идентификаторы ещё не выдавались
+         */
+        long loadHighWaterMark();
+
+        /**
+         * Сохраняет границу. Должен вернуть управление только после записи на диск,
+         * иначе после падения процесса идентификаторы могут повториться
+         *
+         * @throws RuntimeException Если границу не удалось сохранить
+         */
+        void saveHighWaterMark(long highWaterMark);
+    }
+
+    private final Storage mStorage;
+    private final int mBlockSize;
+
+    // Последний выданный идентификатор
+    private final AtomicLong mLastId;
+
+    // Граница сохранённого блока. Идентификаторы до неё включительно можно выдавать без записи
+    private volatile long mHighWaterMark;
+
+    public BlockIdGenerator(Storage storage, int blockSize) {
+        super();
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+
+        mStorage = storage;
+        mBlockSize = blockSize;
+        mHighWaterMark = storage.loadHighWaterMark();
+        mLastId = new AtomicLong(mHighWaterMark);
+    }
+
+    @Override
+    public long generateDictionaryNumber() {
+        final long id = mLastId.incrementAndGet();
+        if (id <= mHighWaterMark)
+            return id;
+
+        reserveUpTo(id);
+        return id;
+    }
+
+    /**
+     * Резервирует блоки, пока граница не покроет идентификатор.
+     * Граница в памяти поднимается только после сохранения, поэтому потоки,
+     * получившие идентификатор за старой границей, ждут здесь его сохранения.
+     * Если сохранить не удалось, исключение передаётся вызывающему, граница остаётся прежней,
+     * и следующий идентификатор снова попробует её сохранить
+     */
+    private synchronized void reserveUpTo(long id) {
+        long highWaterMark = mHighWaterMark;
+        if (id <= highWaterMark)
+            return;
+
+        while (highWaterMark < id)
+            highWaterMark += mBlockSize;
+
+        mStorage.saveHighWaterMark(highWaterMark);
+        mHighWaterMark = highWaterMark;
+    }
+}
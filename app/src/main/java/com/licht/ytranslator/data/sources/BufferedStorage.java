@@ -0,0 +1,122 @@
+package com.licht.ytranslator.data.sources;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Хранилище настроек поверх другого {@link KeyValueStore}.
+ *
+ * Изменения записываются отложенно: все изменения, сделанные за время ожидания, записываются
+ * одной записью, а повторные изменения одной настройки (например, переводимого текста
+ * на каждое нажатие клавиши) объединяются в одну запись. Количество записей на диск
+ * уменьшается с количества нажатий до одной записи на паузу в наборе.
+ *
+ * Объект используется только из главного потока.
+ */
+public class BufferedStorage implements KeyValueStore {
+
+    // Время (в мс) ожидания следующих изменений перед записью
+    private static final long FLUSH_DELAY_MS = 2000;
+
+    private final KeyValueStore mStore;
+
+    // Изменения, ожидающие записи
+    private final Map<String, String> mPendingValues = new LinkedHashMap<>();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mFlushRunnable = this::flush;
+    private boolean mIsFlushScheduled = false;
+
+    // Статистика: сколько изменений было сделано, и сколькими записями на диск они сохранены
+    private long mPutCount = 0;
+    private long mFlushCount = 0;
+
+    public BufferedStorage(KeyValueStore store) {
+        super();
+        mStore = store;
+    }
+
+    @Override
+    public String getString(String key, String defaultValue) {
+        final String value = mPendingValues.containsKey(key)
+                ? mPendingValues.get(key)
+                : mStore.getString(key, null);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return mPendingValues.containsKey(key)
+                ? mPendingValues.get(key) != null
+                : mStore.contains(key);
+    }
+
+    @Override
+    public void commit(Map<String, String> values) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            ++mPutCount;
+            if (!equals(getString(entry.getKey(), null), entry.getValue()))
+                mPendingValues.put(entry.getKey(), entry.getValue());
+        }
+
+        if (!mPendingValues.isEmpty() && !mIsFlushScheduled) {
+            mIsFlushScheduled = true;
+            mHandler.postDelayed(mFlushRunnable, FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Записывает отложенные изменения вместе с переданными одной записью и ожидает её
+     */
+    @Override
+    public void commitSync(Map<String, String> values) {
+        mPutCount += values.size();
+        final Map<String, String> changes = new LinkedHashMap<>(mPendingValues);
+        changes.putAll(values);
+        cancelFlush();
+        mPendingValues.clear();
+
+        ++mFlushCount;
+        mStore.commitSync(changes);
+    }
+
+    @Override
+    public void flush() {
+        cancelFlush();
+        if (mPendingValues.isEmpty())
+            return;
+
+        mStore.commit(mPendingValues);
+
+        mPendingValues.clear();
+        ++mFlushCount;
+    }
+
+    /**
+     * @return Количество изменений настроек
+     */
+    public long getPutCount() {
+        return mPutCount;
+    }
+
+    /**
+     * @return Количество записей настроек на диск
+     */
+    public long getFlushCount() {
+        return mFlushCount;
+    }
+
+    private void cancelFlush() {
+        if (mIsFlushScheduled) {
+            mHandler.removeCallbacks(mFlushRunnable);
+            mIsFlushScheduled = false;
+        }
+    }
+
+    private static boolean equals(String first, String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+}
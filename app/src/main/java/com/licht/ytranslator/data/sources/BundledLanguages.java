@@ -0,0 +1,73 @@
+package com.licht.ytranslator.data.sources;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.licht.ytranslator.data.model.Localization;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Список языков, поставляемый вместе с приложением.
+ *
+ * Файлы assets/languages/<локализация>.json - снимки ответа getLangs API Яндекс Переводчика
+ * для каждой локализации UI. С них приложение начинает работу без обращения к сети,
+ * пока актуальный список загружается в фоне.
+ */
+public final class BundledLanguages {
+    private static final String TAG = "BundledLanguages";
+
+    private static final String ASSETS_DIRECTORY = "languages/";
+
+    private BundledLanguages() {
+    }
+
+    /**
+     * @param context      Контекст приложения
+     * @param localization Локализация UI
+     * @return Список языков, или пустой список, если для локализации нет снимка
+     */
+    public static List<Localization> load(Context context, String localization) {
+        try {
+            final Reader reader = new InputStreamReader(
+                    context.getAssets().open(ASSETS_DIRECTORY + localization + ".json"), "UTF-8");
+            try {
+                return parse(new JsonParser().parse(reader).getAsJsonObject(), localization);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read bundled languages for " + localization, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Разбирает ответ getLangs.
+     * В ответе есть список языков (локализованный) и список допустимых направлений перевода.
+     * В текущей версии API список допустимых направлений перевода не используется,
+     * поэтому он пропускается
+     *
+     * @param response     Ответ API
+     * @param localization Локализация UI, для которой был получен ответ
+     * @return Список языков
+     */
+    public static List<Localization> parse(JsonObject response, String localization) {
+        final List<Localization> localizations = new ArrayList<>();
+        final JsonObject langs = response.getAsJsonObject("langs");
+        if (langs == null)
+            return localizations;
+
+        for (Map.Entry<String, JsonElement> entry : langs.entrySet())
+            localizations.add(new Localization(localization, entry.getKey(), entry.getValue().getAsString()));
+        return localizations;
+    }
+}
@@ -2,41 +2,39 @@ package com.licht.ytranslator.data.sources;
 
 import android.support.annotation.Nullable;
 
-import com.facebook.stetho.Stetho;
-import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.HistoryFilter;
 import com.licht.ytranslator.data.model.DictionaryObject;
-import com.licht.ytranslator.data.model.ExampleObject;
 import com.licht.ytranslator.data.model.HistoryObject;
 import com.licht.ytranslator.data.model.Localization;
-import com.licht.ytranslator.data.model.WordMeaningObject;
 import com.licht.ytranslator.data.model.WordObject;
-import com.uphyca.stetho_realm.RealmInspectorModulesProvider;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
 import io.realm.Realm;
 import io.realm.RealmQuery;
 import io.realm.RealmResults;
+import io.realm.Sort;
 
 /**
  * Предоставляет обёртку над базой данных
  */
 public class CacheData {
 
-    public CacheData() {
+    // Порядок списка истории: по дате первого использования, затем по тексту и направлению
+    private static final String[] HISTORY_SORT_FIELDS = {"firstUsingDate", "word", "direction"};
+    private static final Sort[] HISTORY_SORT_ORDERS = {Sort.ASCENDING, Sort.ASCENDING, Sort.ASCENDING};
+
+    // Результат поиска начала следующей страницы истории для последней страницы
+    public static final long NO_NEXT_HISTORY_PAGE = -1;
+
+    // Экземпляры Realm открываются и закрываются только через этот объект
+    private final RealmInstanceManager mRealmInstanceManager;
+
+    public CacheData(RealmInstanceManager realmInstanceManager) {
         super();
-        Realm.init(YTransApp.get());
-
-        // Инициируем библиотеку, которая позволяет смотреть содержимое базы данных и SharedPreferences
-        // с помощью инструментов разработчика в Google Chrome
-        Stetho.initialize(
-                Stetho.newInitializerBuilder(YTransApp.get())
-                        .enableDumpapp(Stetho.defaultDumperPluginsProvider(YTransApp.get()))
-                        .enableWebKitInspector(RealmInspectorModulesProvider.builder(YTransApp.get()).build())
-                        .build());
+        mRealmInstanceManager = realmInstanceManager;
     }
 
     /**
@@ -45,252 +43,342 @@ public class CacheData {
      * @return Список языков в указанной локализации
      */
     public Localization[] getLanguageList(String localSymbol) {
-        final Realm realm = Realm.getDefaultInstance();
-        RealmResults<Localization> localizations = realm.where(Localization.class)
-                .equalTo("locale", localSymbol)
-                .findAll();
-        return localizations.toArray(new Localization[localizations.size()]);
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            RealmResults<Localization> localizations = realm.where(Localization.class)
+                    .equalTo("locale", localSymbol)
+                    .findAll();
+            final List<Localization> result = realm.copyFromRealm(localizations);
+            return result.toArray(new Localization[result.size()]);
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
     public void saveLocalization(List<Localization> localizations) {
-        final Realm realm = Realm.getDefaultInstance();
-        realm.beginTransaction();
-
-        if (realm.where(Localization.class)
-                .equalTo("locale", localizations.get(0).getLanguageSymbol())
-                .count() > 0)
-            realm.delete(Localization.class);
-
-        realm.copyToRealm(localizations);
-        realm.commitTransaction();
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            realm.beginTransaction();
+
+            // Список языков заменяется целиком, списки других локализаций не меняются
+            realm.where(Localization.class)
+                    .equalTo("locale", localizations.get(0).getLocale())
+                    .findAll()
+                    .deleteAllFromRealm();
+
+            realm.copyToRealm(localizations);
+            realm.commitTransaction();
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
 
     public DictionaryObject getCachedWord(String word, String dir) {
-        final Realm realm = Realm.getDefaultInstance();
-        DictionaryObject w = realm.where(DictionaryObject.class)
-                .equalTo("word", word)
-                .equalTo("direction", dir)
-                .findFirst();
-        if (w != null)
-            w = realm.copyFromRealm(w);
-        return w;
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            DictionaryObject w = realm.where(DictionaryObject.class)
+                    .equalTo("word", word)
+                    .equalTo("direction", dir)
+                    .findFirst();
+            if (w != null)
+                w = realm.copyFromRealm(w);
+            return w;
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
     public WordObject getCachedDictionary(long id) {
-        final Realm realm = Realm.getDefaultInstance();
-        WordObject wordObject = realm.where(WordObject.class)
-                .equalTo("id", id)
-                .findFirst();
-        if (wordObject != null)
-            wordObject = realm.copyFromRealm(wordObject);
-
-        return wordObject;
-    }
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            WordObject wordObject = realm.where(WordObject.class)
+                    .equalTo("id", id)
+                    .findFirst();
+            if (wordObject != null)
+                wordObject = realm.copyFromRealm(wordObject);
 
-    public void cacheDictionary(DictionaryObject dictionaryObject) {
-        final Realm realm = Realm.getDefaultInstance();
-        realm.beginTransaction();
-        realm.copyToRealm(dictionaryObject);
-        realm.commitTransaction();
+            return wordObject;
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
-    public void addWordToHistory(HistoryObject item) {
-        final Realm realm = Realm.getDefaultInstance();
+    /**
+     * Записывает пачку отложенных изменений одной транзакцией.
+     * Повторная запись той же пачки ничего не меняет, поэтому пачки из журнала можно записывать повторно
+     *
+     * @param batch Изменения кэша переводов, истории и словарных статей
+     * @return Переводы, добавленные в историю (открепленные от Realm)
+     */
+    public List<HistoryObject> applyWriteBatch(HistoryWriteBatch batch) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            final List<HistoryObject> addedToHistory = new ArrayList<>();
+            realm.executeTransaction(r -> {
+                for (HistoryObject item : batch.translations)
+                    if (findTranslation(r, item.getWord(), item.getDirection()) == null)
+                        r.copyToRealm(item);
+
+                for (HistoryWriteBatch.Key key : batch.historyKeys) {
+                    final HistoryObject historyObject = findTranslation(r, key.word, key.direction);
+                    if (historyObject == null)
+                        continue;
+
+                    historyObject.setInHistory(true);
+                    addedToHistory.add(r.copyFromRealm(historyObject));
+                }
 
-        RealmResults<HistoryObject> it =
-                realm.where(HistoryObject.class)
-                .equalTo("word", item.getWord())
-                .equalTo("direction", item.getDirection())
-                .findAll();
+                final long now = System.currentTimeMillis();
+                for (DictionaryObject dictionaryObject : batch.dictionaries) {
+                    if (findDictionary(r, dictionaryObject.getWord(), dictionaryObject.getDirection()) != null)
+                        continue;
 
-        realm.beginTransaction();
-        if (it.size() > 0) {
-            HistoryObject historyObject = it.first();
-            historyObject.setFavorites(item.isFavorites());
-        } else
-            realm.copyToRealm(item);
+                    final DictionaryObject cached = DictionaryInterner.copyToRealm(r, dictionaryObject);
+                    cached.setLastAccessTime(now);
+                    cached.setSizeBytes(DictionarySize.estimate(cached));
+                }
 
-        realm.commitTransaction();
+                for (HistoryWriteBatch.Key key : batch.dictionaryAccesses) {
+                    final DictionaryObject cached = findDictionary(r, key.word, key.direction);
+                    if (cached != null)
+                        cached.setLastAccessTime(now);
+                }
+            });
+            return addedToHistory;
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
-    @Nullable
-    public HistoryObject getWordFromHistory(String word, String direction) {
-        final Realm realm = Realm.getDefaultInstance();
-        HistoryObject historyObject = realm.where(HistoryObject.class)
+    private static DictionaryObject findDictionary(Realm realm, String word, String direction) {
+        return realm.where(DictionaryObject.class)
                 .equalTo("word", word)
                 .equalTo("direction", direction)
-                .equalTo("inHistory", true)
                 .findFirst();
-
-        if (historyObject != null)
-            historyObject = realm.copyFromRealm(historyObject);
-        return historyObject;
     }
 
-    @Nullable
-    public HistoryObject getWordFromCache(String word, String direction) {
-        final Realm realm = Realm.getDefaultInstance();
-        HistoryObject historyObject = realm.where(HistoryObject.class)
+    private static HistoryObject findTranslation(Realm realm, String word, String direction) {
+        return realm.where(HistoryObject.class)
                 .equalTo("word", word)
                 .equalTo("direction", direction)
                 .findFirst();
-
-        if (historyObject != null)
-            historyObject = realm.copyFromRealm(historyObject);
-        return historyObject;
     }
 
-    public List<HistoryObject> getHistoryWords() {
-        final Realm realm = Realm.getDefaultInstance();
-        List<HistoryObject> res = realm.where(HistoryObject.class)
-                .equalTo("inHistory", true).findAll()
-                .sort("firstUsingDate");
-
-        // Открепляем объекты от realm, для того, чтоб модифицировать их вне транзакций
-        List<HistoryObject> historyObjects = new ArrayList<>();
-        for (HistoryObject obj : res)
-            historyObjects.add(realm.copyFromRealm(obj));
+    @Nullable
+    public HistoryObject getWordFromCache(String word, String direction) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            HistoryObject historyObject = realm.where(HistoryObject.class)
+                    .equalTo("word", word)
+                    .equalTo("direction", direction)
+                    .findFirst();
 
-        return historyObjects;
+            if (historyObject != null)
+                historyObject = realm.copyFromRealm(historyObject);
+            return historyObject;
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
+    /**
+     * Находит закэшированные переводы нескольких текстов одним запросом
+     *
+     * @param words     Переводимые тексты
+     * @param direction Направление перевода
+     * @return Найденные переводы (отсутствующих в кэше текстов в списке нет)
+     */
+    public List<HistoryObject> getWordsFromCache(List<String> words, String direction) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            final RealmResults<HistoryObject> results = realm.where(HistoryObject.class)
+                    .equalTo("direction", direction)
+                    .in("word", words.toArray(new String[words.size()]))
+                    .findAll();
+            return realm.copyFromRealm(results);
+        } finally {
+            mRealmInstanceManager.release();
+        }
+    }
 
-    public HistoryObject updateHistoryWord(String word, String direction) {
-        final Realm realm = Realm.getDefaultInstance();
-
-
-        final HistoryObject w = realm.where(HistoryObject.class)
-                .equalTo("word", word)
-                .equalTo("direction", direction).findFirst();
+    /**
+     * Находит начало страницы истории, следующей за страницей из указанного количества переводов.
+     * Переводы с одинаковой датой первого использования не разделяются между страницами,
+     * поэтому страница может оказаться длиннее. Переводы не копируются из Realm
+     *
+     * @param starredOnly True, если нужны только избранные переводы
+     * @param from        Дата начала страницы (null - с начала истории)
+     * @param pageSize    Количество переводов на странице
+     * @return Дата начала следующей страницы в миллисекундах, или {@link #NO_NEXT_HISTORY_PAGE}
+     */
+    public long findNextHistoryPage(boolean starredOnly, @Nullable Date from, int pageSize) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            RealmQuery<HistoryObject> query = realm.where(HistoryObject.class)
+                    .equalTo(starredOnly ? "isFavorites" : "inHistory", true);
+            if (from != null)
+                query = query.greaterThanOrEqualTo("firstUsingDate", from);
+            final RealmResults<HistoryObject> results = query.findAllSorted("firstUsingDate");
+
+            for (int i = pageSize; i < results.size(); ++i) {
+                final Date date = results.get(i).getFirstUsingDate();
+                if (date != null && !date.equals(results.get(i - 1).getFirstUsingDate()))
+                    return date.getTime();
+            }
+            return NO_NEXT_HISTORY_PAGE;
+        } finally {
+            mRealmInstanceManager.release();
+        }
+    }
 
-        if (w == null)
-            return null;
+    /**
+     * Запускает в главном потоке асинхронный запрос страницы переводов истории, упорядоченных
+     * по дате первого использования. Страница выбирается диапазоном дат по индексу firstUsingDate.
+     * Переводы не копируются из Realm и читаются при обращении к ним,
+     * а результаты обновляются сами после каждой записи в базу данных.
+     * Экземпляр Realm главного потока удерживается, пока результаты не будут закрыты
+     * вызовом {@link #closeHistory(RealmResults)}
+     *
+     * @param starredOnly True, если нужны только избранные переводы
+     * @param from        Дата начала страницы (null - с начала истории)
+     * @param to          Дата начала следующей страницы (null, если страница последняя)
+     * @return Результаты запроса, связанные с базой данных
+     */
+    public RealmResults<HistoryObject> openHistory(boolean starredOnly, @Nullable Date from, @Nullable Date to) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            RealmQuery<HistoryObject> query = realm.where(HistoryObject.class)
+                    .equalTo(starredOnly ? "isFavorites" : "inHistory", true);
+            if (from != null)
+                query = query.greaterThanOrEqualTo("firstUsingDate", from);
+            if (to != null)
+                query = query.lessThan("firstUsingDate", to);
+            return query.findAllSortedAsync(HISTORY_SORT_FIELDS, HISTORY_SORT_ORDERS);
+        } catch (RuntimeException e) {
+            // Экземпляр удерживается только вместе с результатами
+            mRealmInstanceManager.release();
+            throw e;
+        }
+    }
 
-        realm.beginTransaction();
-        w.setInHistory(true);
-        realm.commitTransaction();
+    /**
+     * Отключает результаты, полученные из {@link #openHistory(boolean, Date, Date)}, от базы данных
+     */
+    public void closeHistory(RealmResults<HistoryObject> results) {
+        results.removeAllChangeListeners();
+        mRealmInstanceManager.release();
+    }
 
-        return realm.copyFromRealm(w);
+    /**
+     * Ищет переводы истории, где введённый текст встречается в тексте, или в переводе
+     *
+     * @param constraint  Введённый текст
+     * @param starredOnly True, если поиск выполняется только среди избранных переводов
+     * @return Найденные переводы, упорядоченные по дате первого использования (открепленные от Realm)
+     */
+    public List<HistoryObject> searchHistory(CharSequence constraint, boolean starredOnly) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            final RealmResults<HistoryObject> results = starredOnly
+                    ? realm.where(HistoryObject.class).equalTo("isFavorites", true)
+                            .findAllSorted(HISTORY_SORT_FIELDS, HISTORY_SORT_ORDERS)
+                    : realm.where(HistoryObject.class).equalTo("inHistory", true)
+                            .findAllSorted(HISTORY_SORT_FIELDS, HISTORY_SORT_ORDERS);
+
+            // Поиск без учёта регистра в Realm работает только для латиницы, поэтому строки
+            // проверяются здесь. Копируются только найденные переводы
+            final List<HistoryObject> found = new ArrayList<>();
+            HistoryFilter.filter(results, constraint, found);
+            return realm.copyFromRealm(found);
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
+
     public void clearHistory() {
         // Очищаем историю переводов.
         // Для этого проходимся по всем объектам и указываем, что они больше не принадлежат истории
         // и списку избранных. Однако, перевод остаётся в кэше, и будет удалён,
         // когда истечет время жизни
-        final Realm realm = Realm.getDefaultInstance();
-        realm.executeTransactionAsync(r -> {
-            final RealmQuery query = r.where(HistoryObject.class).equalTo("inHistory", true);
-            RealmResults results = query.findAll();
-            for (Object object : results) {
-                HistoryObject historyObject = (HistoryObject) object;
-                historyObject.setInHistory(false);
-                historyObject.setFavorites(false);
-            }
-        });
+        // Метод вызывается из потока записи DatabaseExecutor, поэтому транзакция выполняется синхронно
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            realm.executeTransaction(r -> {
+                final RealmQuery query = r.where(HistoryObject.class).equalTo("inHistory", true);
+                RealmResults results = query.findAll();
+                for (Object object : results) {
+                    HistoryObject historyObject = (HistoryObject) object;
+                    historyObject.setInHistory(false);
+                    historyObject.setFavorites(false);
+                }
+            });
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
     public void clearStarredList() {
         // Очищаем список избранных
         // Переводы удаляются из избранных, но по-прежнему остаются в истории переводов
-        final Realm realm = Realm.getDefaultInstance();
-        realm.executeTransactionAsync(r -> {
-            final RealmQuery query = r.where(HistoryObject.class).equalTo("isFavorites", true);
-            RealmResults results = query.findAll();
-            for (Object object : results) {
-                HistoryObject historyObject = (HistoryObject) object;
-                historyObject.setFavorites(false);
-            }
-        });
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            realm.executeTransaction(r -> {
+                final RealmQuery query = r.where(HistoryObject.class).equalTo("isFavorites", true);
+                RealmResults results = query.findAll();
+                for (Object object : results) {
+                    HistoryObject historyObject = (HistoryObject) object;
+                    historyObject.setFavorites(false);
+                }
+            });
+        } finally {
+            mRealmInstanceManager.release();
+        }
     }
 
     /**
-     * Меняет избранность перевод: делает избранным, если оно не было, и наоборот
+     * Меняет избранность перевод: делает избранным, если оно не было, и наоборот.
+     * Перевод, которого ещё нет в истории, добавляется в неё.
+     * Перевод находится одним запросом по индексу (текст, направление), и всё изменение
+     * выполняется одной транзакцией
      *
      * @param word Переводимый текст
      * @param direction Направление перевода
-     * @return True, если после вызова функции, перевод стал избранным. Иначе False.
+     * @return Результат изменения. Если перевода нет в кэше, то он не становится избранным
      */
-    public boolean reverseWordStarred(String word, String direction) {
-
-        final Realm realm = Realm.getDefaultInstance();
-        final HistoryObject w = realm.where(HistoryObject.class)
-                .equalTo("word", word).equalTo("direction", direction)
-                .findFirst();
-        if (w == null)
-            return false;
-
-        boolean isStarred = w.isFavorites();
-        realm.beginTransaction();
-        w.setInHistory(true);
-        w.setFavorites(!isStarred);
-        realm.commitTransaction();
-
-        return !isStarred;
-    }
-
-    /**
-     * Осуществляет очистку базы данных от кэшированных переводов
-     * Удаляются переводы, не попавшие в историю.
-     */
-    public void clearCache() {
-        // Время жизни кэшированного перевода (в днях)
-        final int nDays = 3;
-        final Date dateNDaysAgo = getDateNDayAgo(nDays);
-
-        final Realm realm = Realm.getDefaultInstance();
-
-        // Realm не поддерживает каскадное удаление объектов,
-        // поэтому приходится удалять объекты вручную
-
-        // Выбираем переводы по заданному условию
-        // (не попали в историю, с вышедшим временем жизни)
-        final RealmQuery query =
-                realm.where(HistoryObject.class).equalTo("inHistory", false)
-                        .lessThanOrEqualTo("firstUsingDate", dateNDaysAgo);
-
-        realm.beginTransaction();
-
-        final RealmResults<HistoryObject> translatesToRemove = query.findAll();
-        for (HistoryObject historyObject : translatesToRemove) {
-
-            // Код нахождения элемента продублирован из функции getCachedWord(), т.к.
-            // она возвращает неуправляемый (unmanaged) объект,
-            // а для работы с Realm нам нужен управляемый (managed)
-            DictionaryObject dictionaryObject = realm.where(DictionaryObject.class)
-                    .equalTo("word", historyObject.getWord())
-                    .equalTo("direction", historyObject.getDirection())
-                    .findFirst();
-
-            if (dictionaryObject == null)
-                continue;
-
-            for (WordObject wordObject : dictionaryObject.getDictionaries()) {
-                for (WordMeaningObject m : wordObject.getWordMeaningObjects()) {
-
-                    m.getSynonimes().deleteAllFromRealm();
-                    m.getMeanings().deleteAllFromRealm();
-
-                    for (ExampleObject ex : m.getExampleObjects())
-                        ex.getTranslates().deleteAllFromRealm();
-                    m.getExampleObjects().deleteAllFromRealm();
-                }
-                wordObject.getWordMeaningObjects().deleteAllFromRealm();
-            }
-            dictionaryObject.getDictionaries().deleteAllFromRealm();
+    public StarredChange reverseWordStarred(String word, String direction) {
+        final Realm realm = mRealmInstanceManager.acquire();
+        try {
+            final HistoryObject w = findTranslation(realm, word, direction);
+            if (w == null)
+                return new StarredChange(null, false);
+
+            final boolean wasInHistory = w.isInHistory();
+            final boolean isStarred = !w.isFavorites();
+            realm.executeTransaction(r -> {
+                w.setInHistory(true);
+                w.setFavorites(isStarred);
+            });
+
+            return new StarredChange(wasInHistory ? null : realm.copyFromRealm(w), isStarred);
+        } finally {
+            mRealmInstanceManager.release();
         }
-        query.findAll().deleteAllFromRealm();
-        realm.commitTransaction();
     }
 
     /**
-     * Возвращает дату, которая была N дней назад
+     * Результат изменения избранности перевода
      */
-    private Date getDateNDayAgo(int n) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(new Date());
-        cal.add(Calendar.DAY_OF_YEAR, -n);
-        return cal.getTime();
+    public static class StarredChange {
+        // Перевод, который был добавлен в историю при изменении избранности
+        // (открепленный от Realm), либо null
+        public final HistoryObject addedToHistory;
+        public final boolean isStarred;
+
+        StarredChange(HistoryObject addedToHistory, boolean isStarred) {
+            this.addedToHistory = addedToHistory;
+            this.isStarred = isStarred;
+        }
     }
 }
@@ -0,0 +1,66 @@
+package com.licht.ytranslator.data.sources;
+
+/**
+ * Параметры очистки кэша переводов и словарных статей в базе данных
+ */
+public class CacheEvictionConfig {
+    private static final long DEFAULT_TIME_TO_LIVE_MS = 3 * 24 * 60 * 60 * 1000L;
+    private static final int DEFAULT_MAX_CACHED_TRANSLATIONS = 2000;
+    private static final int DEFAULT_STEP_SIZE = 50;
+    private static final long DEFAULT_MAX_DICTIONARY_BYTES = 2 * 1024 * 1024;
+    private static final int DEFAULT_MAX_DICTIONARY_ENTRIES = 500;
+
+    // Время жизни перевода, не попавшего в историю
+    private final long timeToLiveMs;
+
+    // Максимальное количество переводов, не попавших в историю. Сверх него удаляются самые старые
+    private final int maxCachedTranslations;
+
+    // Максимальное количество объектов, обрабатываемых одной транзакцией.
+    // Между транзакциями очистки выполняются остальные записи в базу данных
+    private final int stepSize;
+
+    // Ограничения кэша словарных статей: примерный общий размер и количество статей.
+    // При превышении любого из них вытесняются статьи, к которым дольше всего не обращались.
+    // Статьи переводов из истории и избранного не вытесняются и в ограничения не входят
+    private final long maxDictionaryBytes;
+    private final int maxDictionaryEntries;
+
+    public CacheEvictionConfig(long timeToLiveMs, int maxCachedTranslations, int stepSize,
+                               long maxDictionaryBytes, int maxDictionaryEntries) {
+        super();
+        this.timeToLiveMs = timeToLiveMs;
+        this.maxCachedTranslations = maxCachedTranslations;
+        this.stepSize = stepSize;
+        this.maxDictionaryBytes = maxDictionaryBytes;
+        this.maxDictionaryEntries = maxDictionaryEntries;
+    }
+
+    /**
+     * @return Параметры очистки, используемые приложением по умолчанию
+     */
+    public static CacheEvictionConfig createDefault() {
+        return new CacheEvictionConfig(DEFAULT_TIME_TO_LIVE_MS, DEFAULT_MAX_CACHED_TRANSLATIONS,
+                DEFAULT_STEP_SIZE, DEFAULT_MAX_DICTIONARY_BYTES, DEFAULT_MAX_DICTIONARY_ENTRIES);
+    }
+
+    public long getTimeToLiveMs() {
+        return timeToLiveMs;
+    }
+
+    public int getMaxCachedTranslations() {
+        return maxCachedTranslations;
+    }
+
+    public int getStepSize() {
+        return stepSize;
+    }
+
+    public long getMaxDictionaryBytes() {
+        return maxDictionaryBytes;
+    }
+
+    public int getMaxDictionaryEntries() {
+        return maxDictionaryEntries;
+    }
+}
@@ -0,0 +1,93 @@
+package com.licht.ytranslator.data.sources;
+
+/**
+ * Результат очистки кэша: сколько объектов каждого типа было удалено
+ * и как изменился размер файла базы данных.
+ *
+ * Realm не уменьшает файл при удалении объектов, освободившееся место используется
+ * для новых записей, поэтому основной показатель - количество удалённых объектов.
+ */
+public class CacheEvictionReport {
+    // Удалённые переводы: с истёкшим временем жизни и сверх максимального количества
+    long expiredTranslations = 0;
+    long overflowTranslations = 0;
+
+    // Удалённые объекты словарных статей (вместе с переводами и оставшиеся без ссылок)
+    long dictionaries = 0;
+    long words = 0;
+    long meanings = 0;
+    long examples = 0;
+
+    // Словарные статьи, вытесненные из-за превышения размера кэша (входят в dictionaries),
+    // и размер кэша словарных статей после очистки
+    long lruDictionaries = 0;
+    long dictionaryCacheBytes = 0;
+
+    // Количество транзакций и их суммарная длительность
+    int steps = 0;
+    long durationMs = 0;
+
+    long fileSizeBeforeBytes = 0;
+    long fileSizeAfterBytes = 0;
+
+    public long getExpiredTranslations() {
+        return expiredTranslations;
+    }
+
+    public long getOverflowTranslations() {
+        return overflowTranslations;
+    }
+
+    public long getDictionaries() {
+        return dictionaries;
+    }
+
+    public long getLruDictionaries() {
+        return lruDictionaries;
+    }
+
+    /**
+     * @return Примерный размер вытесняемых словарных статей после очистки (если размер проверялся)
+     */
+    public long getDictionaryCacheBytes() {
+        return dictionaryCacheBytes;
+    }
+
+    /**
+     * @return Общее количество удалённых объектов всех типов
+     */
+    public long getRemovedObjectsCount() {
+        return expiredTranslations + overflowTranslations + dictionaries + words + meanings +
+                examples;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getFileSizeBeforeBytes() {
+        return fileSizeBeforeBytes;
+    }
+
+    public long getFileSizeAfterBytes() {
+        return fileSizeAfterBytes;
+    }
+
+    /**
+     * @return Описание результата в текстовом виде
+     */
+    public String getDescription() {
+        return "removed translations: " + expiredTranslations + " expired, " +
+                overflowTranslations + " over limit\n" +
+                "removed dictionary objects: " + dictionaries + " entries, " + words + " words, " +
+                meanings + " meanings, " + examples + " examples\n" +
+                "evicted least recently used dictionary entries: " + lruDictionaries +
+                ", dictionary cache size: " + dictionaryCacheBytes + " bytes\n" +
+                "transactions: " + steps + ", " + durationMs + " ms\n" +
+                "database file size: " + fileSizeBeforeBytes + " -> " + fileSizeAfterBytes + " bytes\n";
+    }
+}
@@ -0,0 +1,433 @@
+package com.licht.ytranslator.data.sources;
+
+import com.licht.ytranslator.data.TranslationKey;
+import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.ExampleObject;
+import com.licht.ytranslator.data.model.HistoryObject;
+import com.licht.ytranslator.data.model.WordMeaningObject;
+import com.licht.ytranslator.data.model.WordObject;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.realm.Realm;
+import io.realm.RealmObject;
+import io.realm.RealmResults;
+
+/**
+ * Очищает базу данных от устаревших кэшированных переводов и словарных статей.
+ *
+ * Очистка выполняется небольшими шагами, каждый шаг - отдельная транзакция, обрабатывающая
+ * ограниченное количество объектов. Поэтому очистка не блокирует другие записи в базу данных
+ * надолго, сколько бы объектов ни было в кэше. Порядок очистки:
+ *   1. Переводы, не попавшие в историю, с истёкшим временем жизни
+ *   2. Самые старые переводы, не попавшие в историю, сверх максимального количества
+ *   3. Словарные статьи, для которых нет перевода
+ *   4. Словарные статьи, к которым дольше всего не обращались, при превышении размера
+ *      или количества статей в кэше (LRU)
+ *   5. Объекты словарных статей, на которые не осталось ссылок (значения, использования,
+ *      примеры и строки), например, оставшиеся после прежней неполной очистки
+ *
+ * Переводы из истории и избранного и их словарные статьи не удаляются никогда.
+ */
+public class CacheEvictor {
+    // Во сколько раз больше объектов просматривается за шаг при поиске объектов без ссылок:
+    // проверка ссылок намного дешевле удаления
+    private static final int ORPHAN_SCAN_FACTOR = 10;
+
+    private enum Phase {
+        EXPIRED_TRANSLATIONS,
+        OVERFLOW_TRANSLATIONS,
+        ORPHAN_DICTIONARIES,
+        DICTIONARY_SIZES,
+        DICTIONARY_BUDGET,
+        ORPHAN_WORDS,
+        ORPHAN_MEANINGS,
+        ORPHAN_EXAMPLES,
+        FINISHED
+    }
+
+    private final RealmInstanceManager mRealmInstanceManager;
+    private final CacheEvictionConfig mConfig;
+
+    public CacheEvictor(RealmInstanceManager realmInstanceManager, CacheEvictionConfig config) {
+        super();
+        mRealmInstanceManager = realmInstanceManager;
+        mConfig = config;
+    }
+
+    /**
+     * @return Новая очистка кэша. Время жизни переводов отсчитывается от момента вызова
+     */
+    public Run newRun() {
+        return new Run(new Date(System.currentTimeMillis() - mConfig.getTimeToLiveMs()),
+                Phase.EXPIRED_TRANSLATIONS, Phase.ORPHAN_EXAMPLES);
+    }
+
+    /**
+     * @return Очистка, которая только вытесняет словарные статьи при превышении размера кэша.
+     * Используется во время работы приложения, когда в кэш добавляется много статей
+     */
+    public Run newDictionaryBudgetRun() {
+        return new Run(new Date(0), Phase.DICTIONARY_SIZES, Phase.DICTIONARY_BUDGET);
+    }
+
+    /**
+     * Одна очистка кэша. Шаги выполняются по очереди в потоке записи базы данных
+     */
+    public class Run {
+        private final Date mExpirationDate;
+        private final CacheEvictionReport mReport = new CacheEvictionReport();
+
+        private final Phase mLastPhase;
+        private Phase mPhase;
+
+        // Позиция просмотра объектов текущего типа при поиске объектов без ссылок
+        // или списка статей при вытеснении
+        private int mCursor = 0;
+
+        // Статьи, которые можно вытеснить, и их суммарный размер и количество без уже просмотренных.
+        // Вычисляются на первом шаге вытеснения
+        private List<EvictionCandidate> mCandidates;
+        private long mCandidatesBytes;
+        private int mCandidatesCount;
+
+        Run(Date expirationDate, Phase firstPhase, Phase lastPhase) {
+            mExpirationDate = expirationDate;
+            mPhase = firstPhase;
+            mLastPhase = lastPhase;
+        }
+
+        /**
+         * Выполняет очередной шаг очистки одной транзакцией
+         *
+         * @return True, если очистка не закончена и нужно выполнить следующий шаг
+         */
+        public boolean step() {
+            if (mPhase == Phase.FINISHED)
+                return false;
+
+            final long startTime = System.currentTimeMillis();
+            if (mReport.steps == 0)
+                mReport.fileSizeBeforeBytes = mRealmInstanceManager.getDatabaseFileSize();
+
+            final Realm realm = mRealmInstanceManager.acquire();
+            try {
+                realm.executeTransaction(this::runStep);
+            } finally {
+                mRealmInstanceManager.release();
+            }
+
+            ++mReport.steps;
+            mReport.durationMs += System.currentTimeMillis() - startTime;
+            if (mPhase == Phase.FINISHED)
+                mReport.fileSizeAfterBytes = mRealmInstanceManager.getDatabaseFileSize();
+
+            return mPhase != Phase.FINISHED;
+        }
+
+        public CacheEvictionReport getReport() {
+            return mReport;
+        }
+
+        private void runStep(Realm realm) {
+            // Этапы, на которых нечего делать, пропускаются в том же шаге
+            int processed = 0;
+            while (mPhase != Phase.FINISHED && processed == 0)
+                processed = runPhase(realm);
+        }
+
+        /**
+         * Выполняет часть работы текущего этапа. Если этап закончен, переходит к следующему
+         *
+         * @return Количество обработанных объектов
+         */
+        private int runPhase(Realm realm) {
+            switch (mPhase) {
+                case EXPIRED_TRANSLATIONS:
+                    return removeExpiredTranslations(realm);
+                case OVERFLOW_TRANSLATIONS:
+                    return removeOverflowTranslations(realm);
+                case ORPHAN_DICTIONARIES:
+                    return removeOrphanDictionaries(realm);
+                case DICTIONARY_SIZES:
+                    return estimateDictionarySizes(realm);
+                case DICTIONARY_BUDGET:
+                    return removeLeastRecentlyUsedDictionaries(realm);
+                case ORPHAN_WORDS:
+                    return removeOrphans(realm, WordObject.class, WordObject::isReferenced);
+                case ORPHAN_MEANINGS:
+                    return removeOrphans(realm, WordMeaningObject.class, WordMeaningObject::isReferenced);
+                case ORPHAN_EXAMPLES:
+                    return removeOrphans(realm, ExampleObject.class, ExampleObject::isReferenced);
+                default:
+                    return 0;
+            }
+        }
+
+        private void nextPhase() {
+            mPhase = mPhase == mLastPhase ? Phase.FINISHED : Phase.values()[mPhase.ordinal() + 1];
+            mCursor = 0;
+        }
+
+        private int removeExpiredTranslations(Realm realm) {
+            final RealmResults<HistoryObject> expired = realm.where(HistoryObject.class)
+                    .equalTo("inHistory", false)
+                    .lessThanOrEqualTo("firstUsingDate", mExpirationDate)
+                    .findAll();
+
+            final List<HistoryObject> translations = take(expired, 0, mConfig.getStepSize());
+            for (HistoryObject historyObject : translations)
+                removeTranslation(realm, historyObject);
+            mReport.expiredTranslations += translations.size();
+
+            if (translations.size() < mConfig.getStepSize())
+                nextPhase();
+            return translations.size();
+        }
+
+        private int removeOverflowTranslations(Realm realm) {
+            final RealmResults<HistoryObject> cached = realm.where(HistoryObject.class)
+                    .equalTo("inHistory", false)
+                    .findAllSorted("firstUsingDate");
+
+            final int excess = cached.size() - mConfig.getMaxCachedTranslations();
+            if (excess <= 0) {
+                nextPhase();
+                return 0;
+            }
+
+            final List<HistoryObject> translations = take(cached, 0, Math.min(excess, mConfig.getStepSize()));
+            for (HistoryObject historyObject : translations)
+                removeTranslation(realm, historyObject);
+            mReport.overflowTranslations += translations.size();
+
+            if (translations.size() == excess)
+                nextPhase();
+            return translations.size();
+        }
+
+        private int removeOrphanDictionaries(Realm realm) {
+            final List<DictionaryObject> dictionaries =
+                    take(realm.where(DictionaryObject.class).findAll(), mCursor, mConfig.getStepSize());
+
+            int removed = 0;
+            for (DictionaryObject dictionaryObject : dictionaries) {
+                final long translationsCount = realm.where(HistoryObject.class)
+                        .equalTo("word", dictionaryObject.getWord())
+                        .equalTo("direction", dictionaryObject.getDirection())
+                        .count();
+                if (translationsCount == 0) {
+                    removeDictionary(dictionaryObject);
+                    ++removed;
+                }
+            }
+
+            return advance(dictionaries.size(), removed, realm.where(DictionaryObject.class).count());
+        }
+
+        /**
+         * Вычисляет размер словарных статей, для которых он неизвестен
+         * (статьи, сохранённые до появления ограничения размера кэша)
+         */
+        private int estimateDictionarySizes(Realm realm) {
+            final List<DictionaryObject> dictionaries = take(realm.where(DictionaryObject.class)
+                    .equalTo("sizeBytes", 0L)
+                    .findAll(), 0, mConfig.getStepSize());
+            for (DictionaryObject dictionaryObject : dictionaries)
+                dictionaryObject.setSizeBytes(DictionarySize.estimate(dictionaryObject));
+
+            if (dictionaries.size() < mConfig.getStepSize())
+                nextPhase();
+            return dictionaries.size();
+        }
+
+        private int removeLeastRecentlyUsedDictionaries(Realm realm) {
+            if (mCandidates == null)
+                collectCandidates(realm);
+
+            // Вытесняем статьи, начиная с давно не использованных, пока кэш не уложится в ограничения
+            int scanned = 0;
+            int removed = 0;
+            while (isOverBudget(mCandidatesBytes, mCandidatesCount) && mCursor < mCandidates.size()
+                    && scanned < mConfig.getStepSize()) {
+                final EvictionCandidate candidate = mCandidates.get(mCursor++);
+                ++scanned;
+
+                // Между шагами статью могли удалить, открыть снова или добавить её перевод в историю.
+                // Такая статья больше не вытесняется в этой очистке и не учитывается в ограничениях
+                final DictionaryObject dictionaryObject = realm.where(DictionaryObject.class)
+                        .equalTo("word", candidate.word)
+                        .equalTo("direction", candidate.direction)
+                        .equalTo("lastAccessTime", candidate.lastAccessTime)
+                        .findFirst();
+                mCandidatesBytes -= candidate.sizeBytes;
+                --mCandidatesCount;
+                if (dictionaryObject == null || isInHistory(realm, dictionaryObject))
+                    continue;
+
+                removeDictionary(dictionaryObject);
+                ++removed;
+            }
+            mReport.lruDictionaries += removed;
+            mReport.dictionaryCacheBytes = mCandidatesBytes;
+
+            if (!isOverBudget(mCandidatesBytes, mCandidatesCount) || mCursor >= mCandidates.size())
+                nextPhase();
+            return scanned;
+        }
+
+        /**
+         * Один раз за очистку составляет список статей, которые можно вытеснить, от давно
+         * не использованных к недавним. Статьи переводов из истории не вытесняются, поэтому
+         * и не учитываются в ограничениях. Шаги вытеснения дальше идут по этому списку
+         */
+        private void collectCandidates(Realm realm) {
+            final Set<String> historyKeys = new HashSet<>();
+            for (HistoryObject historyObject : realm.where(HistoryObject.class)
+                    .equalTo("inHistory", true)
+                    .findAll())
+                historyKeys.add(TranslationKey.of(historyObject.getWord(), historyObject.getDirection()));
+
+            mCandidates = new ArrayList<>();
+            mCandidatesBytes = 0;
+            for (DictionaryObject dictionaryObject : realm.where(DictionaryObject.class)
+                    .findAllSorted("lastAccessTime")) {
+                if (historyKeys.contains(TranslationKey.of(dictionaryObject.getWord(), dictionaryObject.getDirection())))
+                    continue;
+                mCandidates.add(new EvictionCandidate(dictionaryObject));
+                mCandidatesBytes += dictionaryObject.getSizeBytes();
+            }
+            mCandidatesCount = mCandidates.size();
+        }
+
+        private boolean isOverBudget(long totalBytes, int entriesCount) {
+            return totalBytes > mConfig.getMaxDictionaryBytes() || entriesCount > mConfig.getMaxDictionaryEntries();
+        }
+
+        private boolean isInHistory(Realm realm, DictionaryObject dictionaryObject) {
+            return realm.where(HistoryObject.class)
+                    .equalTo("word", dictionaryObject.getWord())
+                    .equalTo("direction", dictionaryObject.getDirection())
+                    .equalTo("inHistory", true)
+                    .count() > 0;
+        }
+
+        private <T extends RealmObject> int removeOrphans(Realm realm, Class<T> clazz, ReferenceCheck<T> check) {
+            final List<T> objects = take(realm.where(clazz).findAll(), mCursor,
+                    mConfig.getStepSize() * ORPHAN_SCAN_FACTOR);
+
+            int removed = 0;
+            for (T object : objects) {
+                if (check.isReferenced(object))
+                    continue;
+                object.deleteFromRealm();
+                ++removed;
+            }
+
+            if (clazz == WordObject.class)
+                mReport.words += removed;
+            else if (clazz == WordMeaningObject.class)
+                mReport.meanings += removed;
+            else if (clazz == ExampleObject.class)
+                mReport.examples += removed;
+
+            return advance(objects.size(), removed, realm.where(clazz).count());
+        }
+
+        /**
+         * Сдвигает позицию просмотра после шага поиска объектов без ссылок.
+         * Удалённые объекты освобождают место в выборке, поэтому позиция сдвигается только
+         * на количество оставшихся
+         *
+         * @return Количество просмотренных объектов
+         */
+        private int advance(int scanned, int removed, long remaining) {
+            mCursor += scanned - removed;
+            if (scanned == 0 || mCursor >= remaining)
+                nextPhase();
+            return scanned;
+        }
+
+        private void removeTranslation(Realm realm, HistoryObject historyObject) {
+            final RealmResults<DictionaryObject> dictionaries = realm.where(DictionaryObject.class)
+                    .equalTo("word", historyObject.getWord())
+                    .equalTo("direction", historyObject.getDirection())
+                    .findAll();
+            for (DictionaryObject dictionaryObject : take(dictionaries, 0, dictionaries.size()))
+                removeDictionary(dictionaryObject);
+
+            historyObject.deleteFromRealm();
+        }
+
+        /**
+         * Удаляет словарную статью вместе со всеми её объектами.
+         * Realm не поддерживает каскадное удаление, поэтому объекты удаляются вручную.
+         * Использования и примеры могут быть общими с другими статьями (см. DictionaryInterner),
+         * поэтому они удаляются, только если на них не осталось ссылок
+         */
+        private void removeDictionary(DictionaryObject dictionaryObject) {
+            final List<WordMeaningObject> meanings = new ArrayList<>();
+            for (WordObject wordObject : dictionaryObject.getDictionaries())
+                meanings.addAll(wordObject.getWordMeaningObjects());
+
+            mReport.words += dictionaryObject.getDictionaries().size();
+            dictionaryObject.getDictionaries().deleteAllFromRealm();
+            dictionaryObject.deleteFromRealm();
+            ++mReport.dictionaries;
+
+            for (WordMeaningObject meaning : meanings) {
+                // Одно использование может встречаться в статье несколько раз
+                if (!meaning.isValid() || meaning.isReferenced())
+                    continue;
+
+                final List<ExampleObject> examples = new ArrayList<>(meaning.getExampleObjects());
+                meaning.deleteFromRealm();
+                ++mReport.meanings;
+
+                for (ExampleObject example : examples) {
+                    if (!example.isValid() || example.isReferenced())
+                        continue;
+                    example.deleteFromRealm();
+                    ++mReport.examples;
+                }
+            }
+        }
+    }
+
+    /**
+     * Копирует часть выборки в список, чтоб удаление объектов не сдвигало обрабатываемую выборку
+     */
+    private static <T extends RealmObject> List<T> take(RealmResults<T> results, int from, int count) {
+        final int to = Math.min(results.size(), from + count);
+        final List<T> objects = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; ++i)
+            objects.add(results.get(i));
+        return objects;
+    }
+
+    /**
+     * Статья, которую можно вытеснить. Объекты Realm не переживают шаг очистки,
+     * поэтому сохраняются только поля для поиска статьи и её размер
+     */
+    private static class EvictionCandidate {
+        final String word;
+        final String direction;
+        final long lastAccessTime;
+        final long sizeBytes;
+
+        EvictionCandidate(DictionaryObject dictionaryObject) {
+            word = dictionaryObject.getWord();
+            direction = dictionaryObject.getDirection();
+            lastAccessTime = dictionaryObject.getLastAccessTime();
+            sizeBytes = dictionaryObject.getSizeBytes();
+        }
+    }
+
+    private interface ReferenceCheck<T> {
+        boolean isReferenced(T object);
+    }
+}
@@ -0,0 +1,121 @@
+package com.licht.ytranslator.data.sources;
+
+import com.licht.ytranslator.data.model.PackedStrings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.realm.DynamicRealm;
+import io.realm.DynamicRealmObject;
+import io.realm.FieldAttribute;
+import io.realm.RealmList;
+import io.realm.RealmMigration;
+import io.realm.RealmObjectSchema;
+import io.realm.RealmSchema;
+
+/**
+ * Переносит данные базы данных из предыдущих версий схемы в текущую.
+ *
+ * Каждое изменение моделей, хранящихся в базе данных, должно увеличивать {@link #SCHEMA_VERSION}
+ * и добавлять сюда шаг переноса со старой версии.
+ */
+public class CacheMigration implements RealmMigration {
+    public static final long SCHEMA_VERSION = 5;
+
+    @Override
+    public void migrate(DynamicRealm realm, long oldVersion, long newVersion) {
+        final RealmSchema schema = realm.getSchema();
+
+        // 0 -> 1: у словарных статей появились время последнего обращения и размер.
+        // Существующие статьи считаются использованными при переносе,
+        // размер вычисляется при первой очистке кэша
+        if (oldVersion == 0) {
+            final long now = System.currentTimeMillis();
+            final RealmObjectSchema dictionarySchema = schema.get("DictionaryObject");
+            dictionarySchema
+                    .addField("lastAccessTime", long.class)
+                    .addField("sizeBytes", long.class)
+                    .transform(object -> object.setLong("lastAccessTime", now));
+            ++oldVersion;
+        }
+
+        // 1 -> 2: синонимы, значения и переводы примеров хранились отдельным объектом StringWrapper
+        // на каждую строку, теперь списки упаковываются в одну строку (см. PackedStrings).
+        // Новые поля добавляются под временными именами, заполняются из старых и заменяют их
+        if (oldVersion == 1) {
+            schema.get("WordMeaningObject")
+                    .addField("packedSynonimes", String.class)
+                    .addField("packedMeanings", String.class)
+                    .transform(object -> {
+                        object.setString("packedSynonimes", pack(object.getList("synonimes")));
+                        object.setString("packedMeanings", pack(object.getList("meanings")));
+                    })
+                    .removeField("synonimes")
+                    .removeField("meanings")
+                    .renameField("packedSynonimes", "synonimes")
+                    .renameField("packedMeanings", "meanings");
+
+            schema.get("ExampleObject")
+                    .addField("packedPhrase", String.class)
+                    .addField("packedTranslates", String.class)
+                    .transform(object -> {
+                        final DynamicRealmObject phrase = object.getObject("phrase");
+                        object.setString("packedPhrase", phrase == null ? null : phrase.getString("content"));
+                        object.setString("packedTranslates", pack(object.getList("translates")));
+                    })
+                    .removeField("phrase")
+                    .removeField("translates")
+                    .renameField("packedPhrase", "phrase")
+                    .renameField("packedTranslates", "translates");
+
+            schema.remove("StringWrapper");
+            ++oldVersion;
+        }
+
+        // 2 -> 3: история читается постранично по дате первого использования
+        if (oldVersion == 2) {
+            schema.get("HistoryObject").addIndex("firstUsingDate");
+            ++oldVersion;
+        }
+
+        // 3 -> 4: история и избранное выбираются по индексам флагов
+        if (oldVersion == 3) {
+            schema.get("HistoryObject")
+                    .addIndex("inHistory")
+                    .addIndex("isFavorites");
+            ++oldVersion;
+        }
+
+        // 4 -> 5: одинаковые использования слов и примеры хранятся один раз и находятся
+        // по ключу содержимого (см. DictionaryInterner). Ключи вычисляются для уже сохранённых
+        // объектов, чтоб новые статьи ссылались на них. Примеры обрабатываются первыми:
+        // их ключи входят в ключи использований
+        if (oldVersion == 4) {
+            schema.get("ExampleObject")
+                    .addField("contentKey", String.class, FieldAttribute.INDEXED)
+                    .transform(object -> object.setString("contentKey", DictionaryInterner.exampleKey(
+                            object.getString("phrase"), object.getString("translates"))));
+
+            schema.get("WordMeaningObject")
+                    .addField("contentKey", String.class, FieldAttribute.INDEXED)
+                    .transform(object -> {
+                        final List<String> exampleKeys = new ArrayList<>();
+                        for (DynamicRealmObject example : object.getList("exampleObjects"))
+                            exampleKeys.add(example.getString("contentKey"));
+
+                        object.setString("contentKey", DictionaryInterner.meaningKey(
+                                object.getString("text"), object.getString("pos"),
+                                object.getString("synonimes"), object.getString("meanings"),
+                                exampleKeys));
+                    });
+            ++oldVersion;
+        }
+    }
+
+    private static String pack(RealmList<DynamicRealmObject> stringWrappers) {
+        final List<String> strings = new ArrayList<>(stringWrappers.size());
+        for (DynamicRealmObject stringWrapper : stringWrappers)
+            strings.add(stringWrapper.getString("content"));
+        return PackedStrings.pack(strings);
+    }
+}
@@ -1,23 +1,18 @@
 package com.licht.ytranslator.data.sources;
 
-import android.content.Context;
-import android.content.SharedPreferences;
-
-import com.licht.ytranslator.YTransApp;
+import java.util.Collections;
 
 /**
  * Хранит информацию о закэшированности данных для локализации
  */
 public class CachedPreferences {
-    private static final String PREF_NAME = "pref_name";
-
     private static final String PREF_DATA_CACHED_PREFIX = "DATA_CACHED_";
 
-    private final SharedPreferences mSharedPreferences;
+    private final KeyValueStore mStore;
 
-    public CachedPreferences() {
+    public CachedPreferences(KeyValueStore store) {
         super();
-        mSharedPreferences = (YTransApp.get()).getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        mStore = store;
     }
 
     /**
@@ -27,7 +22,7 @@ public class CachedPreferences {
      */
     public Boolean getDataCached(String lang) {
         final String prefName = PREF_DATA_CACHED_PREFIX + lang;
-        return mSharedPreferences.getBoolean(prefName, false);
+        return Boolean.parseBoolean(mStore.getString(prefName, null));
     }
 
     /**
@@ -36,7 +31,7 @@ public class CachedPreferences {
      */
     public void putDataCached(String lang) {
         final String prefName = PREF_DATA_CACHED_PREFIX + lang;
-        mSharedPreferences.edit().putBoolean(prefName, true).apply();
+        mStore.commit(Collections.singletonMap(prefName, Boolean.TRUE.toString()));
     }
 
 }
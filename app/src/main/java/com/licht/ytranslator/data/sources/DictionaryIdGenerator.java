@@ -0,0 +1,12 @@
+package com.licht.ytranslator.data.sources;
+
+/**
+ * Источник идентификаторов для словарных статей.
+ * Realm не поддерживает автоинкрементальные идентификаторы, поэтому они генерируются вручную
+ */
+public interface DictionaryIdGenerator {
+    /**
+     * @return Новый, ранее не выданный идентификатор
+     */
+    long generateDictionaryNumber();
+}
@@ -0,0 +1,143 @@
+package com.licht.ytranslator.data.sources;
+
+import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.ExampleObject;
+import com.licht.ytranslator.data.model.PackedStrings;
+import com.licht.ytranslator.data.model.WordMeaningObject;
+import com.licht.ytranslator.data.model.WordObject;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.realm.Realm;
+import io.realm.RealmList;
+
+/**
+ * Сохраняет словарные статьи так, что одинаковые использования слов и примеры хранятся
+ * в базе данных один раз.
+ *
+ * Одни и те же использования (синонимы, значения) и примеры с переводами встречаются в статьях
+ * разных слов и направлений перевода. Каждое использование (WordMeaningObject) и пример
+ * (ExampleObject) получает ключ содержимого - хэш всех своих полей. Перед сохранением объект
+ * ищется по этому ключу (по индексу), и если такой объект уже есть в базе данных, то статья
+ * ссылается на него вместо новой копии.
+ *
+ * Значения слов (WordObject) не объединяются: по их идентификаторам открывается экран словаря.
+ * Общий объект удаляется, только когда на него не осталось ссылок (см. CacheEvictor).
+ */
+final class DictionaryInterner {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private DictionaryInterner() {
+    }
+
+    /**
+     * Сохраняет словарную статью. Выполняется внутри транзакции, переданный объект не изменяется
+     *
+     * @return Сохранённая статья
+     */
+    static DictionaryObject copyToRealm(Realm realm, DictionaryObject dictionaryObject) {
+        final RealmList<WordObject> wordObjects = new RealmList<>();
+        for (WordObject wordObject : dictionaryObject.getDictionaries()) {
+            final RealmList<WordMeaningObject> meanings = new RealmList<>();
+            for (WordMeaningObject meaning : wordObject.getWordMeaningObjects())
+                meanings.add(intern(realm, meaning));
+
+            wordObjects.add(new WordObject(wordObject.getId(), wordObject.getText(),
+                    wordObject.getTrans(), wordObject.getType(), meanings));
+        }
+
+        // Уже сохранённые использования Realm не копирует, а только ссылается на них
+        return realm.copyToRealm(new DictionaryObject(dictionaryObject.getWord(),
+                dictionaryObject.getDirection(), wordObjects));
+    }
+
+    /**
+     * @param phrase           Пример использования
+     * @param packedTranslates Переводы примера, упакованные {@link PackedStrings}
+     * @return Ключ содержимого примера
+     */
+    static String exampleKey(String phrase, String packedTranslates) {
+        return hash(phrase, packedTranslates);
+    }
+
+    /**
+     * @param exampleKeys Ключи содержимого примеров использования, по порядку
+     * @return Ключ содержимого использования слова
+     */
+    static String meaningKey(String text, String pos, String packedSynonimes, String packedMeanings,
+                             List<String> exampleKeys) {
+        final List<String> fields = new ArrayList<>(4 + exampleKeys.size());
+        fields.add(text);
+        fields.add(pos);
+        fields.add(packedSynonimes);
+        fields.add(packedMeanings);
+        fields.addAll(exampleKeys);
+        return hash(fields.toArray(new String[fields.size()]));
+    }
+
+    private static WordMeaningObject intern(Realm realm, WordMeaningObject meaning) {
+        final RealmList<ExampleObject> examples = new RealmList<>();
+        final List<String> exampleKeys = new ArrayList<>();
+        for (ExampleObject example : meaning.getExampleObjects()) {
+            final ExampleObject interned = intern(realm, example);
+            examples.add(interned);
+            exampleKeys.add(interned.getContentKey());
+        }
+
+        final String key = meaningKey(meaning.getText(), meaning.getPos(),
+                PackedStrings.pack(meaning.getSynonimes()), PackedStrings.pack(meaning.getMeanings()),
+                exampleKeys);
+        final WordMeaningObject existing = realm.where(WordMeaningObject.class)
+                .equalTo("contentKey", key)
+                .findFirst();
+        if (existing != null)
+            return existing;
+
+        final WordMeaningObject copy = new WordMeaningObject(meaning.getSynonimes(), meaning.getMeanings(),
+                examples, meaning.getText(), meaning.getPos());
+        copy.setContentKey(key);
+        return realm.copyToRealm(copy);
+    }
+
+    private static ExampleObject intern(Realm realm, ExampleObject example) {
+        final String key = exampleKey(example.getPhrase(), PackedStrings.pack(example.getTranslates()));
+        final ExampleObject existing = realm.where(ExampleObject.class)
+                .equalTo("contentKey", key)
+                .findFirst();
+        if (existing != null)
+            return existing;
+
+        final ExampleObject copy = new ExampleObject(example.getPhrase(), example.getTranslates());
+        copy.setContentKey(key);
+        return realm.copyToRealm(copy);
+    }
+
+    private static String hash(String... fields) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // После каждого поля записывается признак конца, отличающий null от пустой строки
+        for (String field : fields) {
+            if (field != null)
+                digest.update(field.getBytes(UTF_8));
+            digest.update(field == null ? (byte) 1 : (byte) 0);
+        }
+
+        final byte[] bytes = digest.digest();
+        final char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
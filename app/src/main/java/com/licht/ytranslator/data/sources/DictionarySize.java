@@ -0,0 +1,58 @@
+package com.licht.ytranslator.data.sources;
+
+import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.ExampleObject;
+import com.licht.ytranslator.data.model.WordMeaningObject;
+import com.licht.ytranslator.data.model.WordObject;
+
+import java.util.List;
+
+/**
+ * Оценивает размер словарной статьи в базе данных.
+ *
+ * Точный размер объектов в файле Realm неизвестен, поэтому размер складывается из длин строк
+ * и примерного размера строки таблицы на каждый объект. Использования и примеры, общие
+ * для нескольких статей, учитываются в каждой из них, поэтому оценка может быть завышена.
+ * Оценки достаточно для того, чтоб ограничивать общий размер кэша словарных статей.
+ */
+final class DictionarySize {
+    // Примерный размер строки таблицы (объекта) без учёта строковых полей
+    private static final int OBJECT_OVERHEAD_BYTES = 32;
+
+    private DictionarySize() {
+    }
+
+    static long estimate(DictionaryObject dictionaryObject) {
+        long size = OBJECT_OVERHEAD_BYTES + length(dictionaryObject.getWord()) +
+                length(dictionaryObject.getDirection());
+
+        for (WordObject wordObject : dictionaryObject.getDictionaries()) {
+            size += OBJECT_OVERHEAD_BYTES + length(wordObject.getText()) +
+                    length(wordObject.getTrans()) + length(wordObject.getType());
+
+            for (WordMeaningObject meaning : wordObject.getWordMeaningObjects()) {
+                size += OBJECT_OVERHEAD_BYTES + length(meaning.getText()) + length(meaning.getPos()) +
+                        estimate(meaning.getSynonimes()) + estimate(meaning.getMeanings());
+
+                for (ExampleObject example : meaning.getExampleObjects()) {
+                    size += OBJECT_OVERHEAD_BYTES + length(example.getPhrase()) +
+                            estimate(example.getTranslates());
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long estimate(List<String> strings) {
+        // Список хранится одной строкой, элементы разделены одним символом
+        long size = 0;
+        for (String string : strings)
+            size += length(string) + 1;
+        return size;
+    }
+
+    private static int length(String text) {
+        // Строки хранятся в UTF-8, для кириллицы - по два байта на символ
+        return text == null ? 0 : 2 * text.length();
+    }
+}
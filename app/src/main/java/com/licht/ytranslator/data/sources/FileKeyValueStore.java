@@ -0,0 +1,287 @@
+package com.licht.ytranslator.data.sources;
+
+import android.util.Log;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * Общее хранилище настроек приложения в одном файле.
+ *
+ * Файл - журнал записей, каждая запись - набор изменённых значений одного commit():
+ * [длина данных][CRC32 данных][данные]. Данные: количество значений, затем для каждого
+ * ключ, признак наличия значения и само значение (строки - длина и байты UTF-8).
+ *
+ * При создании файл читается целиком одним чтением, записи применяются по порядку,
+ * после чего все значения читаются из памяти. Изменения дописываются в конец файла одной
+ * записью, поэтому набор значений сохраняется атомарно: запись, прерванная завершением
+ * процесса, не проходит проверку CRC при следующем чтении и отбрасывается вместе
+ * со всем, что за ней. Когда записей становится много (или файл повреждён),
+ * файл переписывается одной записью с текущими значениями.
+ *
+ * Объект потокобезопасен. Запись в файл выполняется в отдельном потоке в порядке commit().
+ * Если запись не удалась, значения остаются в памяти, а следующая запись переписывает файл
+ * целиком, поэтому они попадут на диск вместе с ней.
+ */
+public class FileKeyValueStore implements KeyValueStore {
+    private static final String TAG = "FileKeyValueStore";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Размер заголовка записи: длина и CRC32 данных
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    // Количество записей в файле, после которого он переписывается одной записью
+    private static final int COMPACTION_RECORDS_COUNT = 256;
+
+    private final File mFile;
+    private final File mTempFile;
+
+    private final Map<String, String> mValues = new HashMap<>();
+
+    private final ExecutorService mWriteExecutor = Executors.newSingleThreadExecutor();
+
+    // Количество записей в файле. Используется только в потоке записи
+    private int mRecordsCount = 0;
+
+    public FileKeyValueStore(File file) {
+        super();
+        mFile = file;
+        mTempFile = new File(file.getPath() + ".tmp");
+        load();
+    }
+
+    @Override
+    public synchronized String getString(String key, String defaultValue) {
+        final String value = mValues.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return mValues.containsKey(key);
+    }
+
+    @Override
+    public void commit(Map<String, String> values) {
+        enqueue(values, false);
+    }
+
+    @Override
+    public void commitSync(Map<String, String> values) {
+        final Future<?> future = enqueue(values, true);
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            // Запись не подтверждена, поэтому считается неудавшейся
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while committing values", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to commit values", e.getCause());
+        }
+    }
+
+    /**
+     * Изменения ставятся в очередь записи сразу при commit(), откладывать нечего
+     */
+    @Override
+    public void flush() {
+    }
+
+    private synchronized Future<?> enqueue(Map<String, String> values, boolean sync) {
+        final Map<String, String> changes = new LinkedHashMap<>(values);
+        for (Map.Entry<String, String> entry : changes.entrySet())
+            apply(mValues, entry.getKey(), entry.getValue());
+
+        // Изменения ставятся в очередь записи под той же блокировкой, что и изменение значений,
+        // поэтому порядок записей в файле совпадает с порядком изменений в памяти
+        return mWriteExecutor.submit(() -> {
+            append(changes, sync);
+            return null;
+        });
+    }
+
+    private void append(Map<String, String> changes, boolean sync) throws IOException {
+        if (mRecordsCount >= COMPACTION_RECORDS_COUNT) {
+            // Снимок содержит и эти изменения: они уже применены к значениям в памяти
+            compact();
+            return;
+        }
+
+        try {
+            write(mFile, true, encodeRecord(changes), sync);
+            ++mRecordsCount;
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to append values", e);
+            // В конце файла могла остаться часть записи, дописывать за ней нельзя.
+            // Следующая запись перепишет файл снимком, в котором есть и эти изменения
+            mRecordsCount = COMPACTION_RECORDS_COUNT;
+            throw e;
+        }
+    }
+
+    private void compact() throws IOException {
+        final Map<String, String> snapshot;
+        synchronized (this) {
+            snapshot = new HashMap<>(mValues);
+        }
+
+        try {
+            write(mTempFile, false, encodeRecord(snapshot), true);
+            if (!mTempFile.renameTo(mFile))
+                throw new IOException("Unable to rename " + mTempFile + " to " + mFile);
+            mRecordsCount = 1;
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to compact values", e);
+            throw e;
+        }
+    }
+
+    private void load() {
+        if (!mFile.exists())
+            return;
+
+        final Buffer buffer = new Buffer();
+        try {
+            final BufferedSource source = Okio.buffer(Okio.source(mFile));
+            try {
+                source.readAll(buffer);
+            } finally {
+                source.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read values", e);
+            return;
+        }
+
+        boolean isDamaged = false;
+        try {
+            while (buffer.size() > 0) {
+                if (!readRecord(buffer)) {
+                    isDamaged = true;
+                    break;
+                }
+                ++mRecordsCount;
+            }
+        } catch (EOFException e) {
+            isDamaged = true;
+        }
+
+        if (isDamaged) {
+            Log.w(TAG, "Discarding damaged tail of " + mFile);
+            mRecordsCount = COMPACTION_RECORDS_COUNT;
+        }
+        if (mRecordsCount >= COMPACTION_RECORDS_COUNT)
+            mWriteExecutor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    // Ошибка уже записана в лог, файл будет переписан при следующей записи
+                }
+            });
+    }
+
+    /**
+     * Читает одну запись и применяет её значения
+     *
+     * @return False, если запись повреждена
+     */
+    private boolean readRecord(Buffer buffer) throws EOFException {
+        if (buffer.size() < RECORD_HEADER_BYTES)
+            return false;
+
+        final int length = buffer.readInt();
+        final int checksum = buffer.readInt();
+        if (length < 0 || length > buffer.size())
+            return false;
+
+        final byte[] data = buffer.readByteArray(length);
+        if ((int) crc32(data) != checksum)
+            return false;
+
+        final Buffer record = new Buffer().write(data);
+        final int count = record.readInt();
+        final Map<String, String> changes = new HashMap<>(count);
+        for (int i = 0; i < count; ++i) {
+            final String key = readString(record);
+            final String value = record.readByte() != 0 ? readString(record) : null;
+            changes.put(key, value);
+        }
+
+        for (Map.Entry<String, String> entry : changes.entrySet())
+            apply(mValues, entry.getKey(), entry.getValue());
+        return true;
+    }
+
+    private static Buffer encodeRecord(Map<String, String> values) {
+        final Buffer data = new Buffer();
+        data.writeInt(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            writeString(data, entry.getKey());
+            if (entry.getValue() == null)
+                data.writeByte(0);
+            else {
+                data.writeByte(1);
+                writeString(data, entry.getValue());
+            }
+        }
+
+        final byte[] bytes = data.readByteArray();
+        return new Buffer()
+                .writeInt(bytes.length)
+                .writeInt((int) crc32(bytes))
+                .write(bytes);
+    }
+
+    private static void write(File file, boolean append, Buffer record, boolean sync) throws IOException {
+        final FileOutputStream stream = new FileOutputStream(file, append);
+        try {
+            final BufferedSink sink = Okio.buffer(Okio.sink(stream));
+            sink.writeAll(record);
+            sink.flush();
+            if (sync)
+                stream.getFD().sync();
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void writeString(Buffer buffer, String value) {
+        final byte[] bytes = value.getBytes(UTF_8);
+        buffer.writeInt(bytes.length).write(bytes);
+    }
+
+    private static String readString(Buffer buffer) throws EOFException {
+        final int length = buffer.readInt();
+        return new String(buffer.readByteArray(length), UTF_8);
+    }
+
+    private static long crc32(byte[] bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static void apply(Map<String, String> values, String key, String value) {
+        if (value == null)
+            values.remove(key);
+        else
+            values.put(key, value);
+    }
+}
@@ -0,0 +1,195 @@
+package com.licht.ytranslator.data.sources;
+
+import android.util.Log;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * Журнал изменений истории переводов, ожидающих записи в базу данных.
+ *
+ * Изменение дописывается в журнал сразу, а удаляется из него после записи в базу данных.
+ * Если процесс приложения будет завершён раньше, то при следующем запуске изменения из журнала
+ * записываются в базу данных (повторная запись изменения безопасна).
+ * Файл не синхронизируется с диском при каждой записи: данные уже переданы системе,
+ * поэтому переживают завершение процесса.
+ *
+ * Каждая запись журнала - одна строка JSON с номером запуска приложения и порядковым номером,
+ * по которым записи удаляются после записи в базу данных. Порядковые номера начинаются заново
+ * при каждом запуске, поэтому удаляются только записи текущего запуска: записи предыдущих запусков,
+ * которые не удалось восстановить, остаются в журнале до следующего восстановления.
+ * Журнал используется из одного фонового потока.
+ */
+public class HistoryJournal {
+    private static final String TAG = "HistoryJournal";
+
+    // Типы записей: новый перевод и добавление перевода в историю
+    private static final String TYPE_TRANSLATION = "translation";
+    private static final String TYPE_HISTORY = "history";
+
+    private final File mFile;
+
+    // Номер текущего запуска приложения
+    private final long mSession = System.currentTimeMillis();
+
+    public HistoryJournal(File file) {
+        super();
+        mFile = file;
+    }
+
+    /**
+     * Дописывает в журнал новый перевод
+     *
+     * @param sequence Порядковый номер записи
+     */
+    public void appendTranslation(long sequence, HistoryObject item) {
+        final JsonObject record = new JsonObject();
+        record.addProperty("session", mSession);
+        record.addProperty("seq", sequence);
+        record.addProperty("type", TYPE_TRANSLATION);
+        record.addProperty("word", item.getWord());
+        record.addProperty("direction", item.getDirection());
+        record.addProperty("translate", item.getTranslate());
+        record.addProperty("date", item.getFirstUsingDate().getTime());
+        append(record);
+    }
+
+    /**
+     * Дописывает в журнал добавление перевода в историю
+     *
+     * @param sequence Порядковый номер записи
+     */
+    public void appendHistoryKey(long sequence, String word, String direction) {
+        final JsonObject record = new JsonObject();
+        record.addProperty("session", mSession);
+        record.addProperty("seq", sequence);
+        record.addProperty("type", TYPE_HISTORY);
+        record.addProperty("word", word);
+        record.addProperty("direction", direction);
+        append(record);
+    }
+
+    /**
+     * Читает все изменения из журнала.
+     * Повреждённые записи (например, запись, которую не успели дописать) пропускаются
+     *
+     * @return Изменения, которые нужно записать в базу данных
+     */
+    public HistoryWriteBatch read() {
+        final HistoryWriteBatch batch = new HistoryWriteBatch();
+        for (String line : readLines()) {
+            try {
+                final JsonObject record = new JsonParser().parse(line).getAsJsonObject();
+                final String type = record.get("type").getAsString();
+                final String word = record.get("word").getAsString();
+                final String direction = record.get("direction").getAsString();
+
+                if (TYPE_TRANSLATION.equals(type))
+                    batch.translations.add(new HistoryObject(word, record.get("translate").getAsString(),
+                            direction, new Date(record.get("date").getAsLong())));
+                else if (TYPE_HISTORY.equals(type))
+                    batch.historyKeys.add(new HistoryWriteBatch.Key(word, direction));
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Skipping damaged journal record", e);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Удаляет из журнала записи текущего запуска, которые уже записаны в базу данных.
+     * Повреждённые записи также удаляются
+     *
+     * @param fromSequence Порядковый номер первой удаляемой записи
+     * @param toSequence   Порядковый номер последней удаляемой записи
+     */
+    public void drop(long fromSequence, long toSequence) {
+        final List<String> remaining = new ArrayList<>();
+        for (String line : readLines()) {
+            try {
+                final JsonObject record = new JsonParser().parse(line).getAsJsonObject();
+                final long sequence = record.get("seq").getAsLong();
+
+                // Записи предыдущих версий журнала не содержат номера запуска
+                final boolean isCurrentSession = record.has("session") &&
+                        record.get("session").getAsLong() == mSession;
+                if (!isCurrentSession || sequence < fromSequence || sequence > toSequence)
+                    remaining.add(line);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Dropping damaged journal record", e);
+            }
+        }
+
+        if (remaining.isEmpty()) {
+            clear();
+            return;
+        }
+
+        // Оставшиеся записи переписываются во временный файл, который затем заменяет журнал
+        final File tempFile = new File(mFile.getPath() + ".tmp");
+        try {
+            final BufferedSink sink = Okio.buffer(Okio.sink(tempFile));
+            try {
+                for (String line : remaining)
+                    sink.writeUtf8(line).writeByte('\n');
+            } finally {
+                sink.close();
+            }
+
+            if (!tempFile.renameTo(mFile))
+                throw new IOException("Unable to rename " + tempFile);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to drop journal records", e);
+        }
+    }
+
+    public void clear() {
+        if (mFile.exists() && !mFile.delete())
+            Log.e(TAG, "Unable to delete " + mFile);
+    }
+
+    private void append(JsonObject record) {
+        try {
+            final BufferedSink sink = Okio.buffer(Okio.appendingSink(mFile));
+            try {
+                sink.writeUtf8(record.toString()).writeByte('\n');
+            } finally {
+                sink.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to append journal record", e);
+        }
+    }
+
+    private List<String> readLines() {
+        final List<String> lines = new ArrayList<>();
+        if (!mFile.exists())
+            return lines;
+
+        try {
+            final BufferedSource source = Okio.buffer(Okio.source(mFile));
+            try {
+                String line;
+                while ((line = source.readUtf8Line()) != null)
+                    if (!line.isEmpty())
+                        lines.add(line);
+            } finally {
+                source.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read journal", e);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,43 @@
+package com.licht.ytranslator.data.sources;
+
+import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Набор отложенных изменений кэша переводов, истории и словарных статей,
+ * который записывается в базу данных одной транзакцией
+ */
+public class HistoryWriteBatch {
+    // Новые переводы. Записываются, только если перевода ещё нет в базе данных
+    public final List<HistoryObject> translations = new ArrayList<>();
+
+    // Переводы, которые нужно добавить в историю
+    public final List<Key> historyKeys = new ArrayList<>();
+
+    // Новые словарные статьи. Записываются, только если статьи ещё нет в базе данных
+    public final List<DictionaryObject> dictionaries = new ArrayList<>();
+
+    // Словарные статьи, к которым обращались (обновляется время последнего обращения)
+    public final List<Key> dictionaryAccesses = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return translations.isEmpty() && historyKeys.isEmpty() && dictionaries.isEmpty() &&
+                dictionaryAccesses.isEmpty();
+    }
+
+    /**
+     * Пара (текст, направление перевода), по которой находится перевод
+     */
+    public static class Key {
+        public final String word;
+        public final String direction;
+
+        public Key(String word, String direction) {
+            this.word = word;
+            this.direction = direction;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.licht.ytranslator.data.sources;
+
+import java.util.Map;
+
+/**
+ * Общее хранилище строковых настроек приложения.
+ *
+ * Через него работают все настройки: последний перевод (через {@link BufferedStorage}),
+ * загруженные локализации и граница идентификаторов словарных статей.
+ * Набор значений сохраняется атомарно: после перезапуска видны либо все значения набора,
+ * либо ни одного.
+ *
+ * Логика настроек не привязана к Android, поэтому её можно выполнять на обычной JVM
+ * (например, в бенчмарках) с хранилищем в памяти.
+ */
+public interface KeyValueStore {
+    /**
+     * @param key          Ключ значения
+     * @param defaultValue Значение, возвращаемое, если ключ не сохранён
+     * @return Сохранённое значение
+     */
+    String getString(String key, String defaultValue);
+
+    boolean contains(String key);
+
+    /**
+     * Сохраняет набор значений. Значения сразу доступны для чтения,
+     * запись на диск выполняется в фоне
+     *
+     * @param values Новые значения. Значение null удаляет ключ
+     */
+    void commit(Map<String, String> values);
+
+    /**
+     * Сохраняет набор значений и ожидает его записи на диск
+     *
+     * @param values Новые значения. Значение null удаляет ключ
+     * @throws IllegalStateException Если значения не удалось записать на диск
+     */
+    void commitSync(Map<String, String> values);
+
+    /**
+     * Записывает отложенные изменения. Хранилища, записывающие изменения сразу, ничего не делают
+     */
+    void flush();
+}
@@ -0,0 +1,170 @@
+package com.licht.ytranslator.data.sources;
+
+import android.content.Context;
+import android.os.Debug;
+
+import com.licht.ytranslator.utils.StartupTrace;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+
+/**
+ * Управляет жизненным циклом экземпляров Realm.
+ *
+ * Экземпляр Realm привязан к потоку, в котором он был открыт. Менеджер хранит по одному экземпляру
+ * на поток и считает, сколько раз он был запрошен. Когда все запросившие его освободили,
+ * экземпляр закрывается. Так вложенные обращения к базе данных в одном потоке используют
+ * один экземпляр, а нативные ресурсы не удерживаются дольше, чем нужно.
+ *
+ * Каждый вызов {@link #acquire()} должен сопровождаться вызовом {@link #release()} в блоке finally.
+ *
+ * Realm инициализируется при первом обращении к базе данных, а не при запуске приложения.
+ * Обращения к базе данных выполняются в фоновых потоках, поэтому загрузка нативной библиотеки
+ * и проверка схемы не задерживают показ первого экрана.
+ */
+public class RealmInstanceManager {
+    private final Context mContext;
+
+    // Выполнена ли инициализация Realm
+    private volatile boolean mIsInitialized = false;
+
+    private final ThreadLocal<ThreadScope> mThreadScope = new ThreadLocal<>();
+
+    // Количество открытых в данный момент экземпляров (во всех потоках)
+    private final AtomicInteger mOpenInstancesCount = new AtomicInteger();
+
+    // Общее количество открытий и закрытий экземпляров за время работы приложения
+    private final AtomicLong mTotalOpenedCount = new AtomicLong();
+    private final AtomicLong mTotalClosedCount = new AtomicLong();
+
+    public RealmInstanceManager(Context context) {
+        super();
+        mContext = context.getApplicationContext();
+    }
+
+    /**
+     * Возвращает экземпляр Realm для текущего потока, открывая его при необходимости
+     *
+     * @return Экземпляр Realm, который нельзя закрывать напрямую
+     */
+    public Realm acquire() {
+        ThreadScope scope = mThreadScope.get();
+        if (scope == null) {
+            initialize();
+            scope = new ThreadScope(Realm.getDefaultInstance());
+            mThreadScope.set(scope);
+
+            mOpenInstancesCount.incrementAndGet();
+            mTotalOpenedCount.incrementAndGet();
+        }
+
+        ++scope.references;
+        return scope.realm;
+    }
+
+    /**
+     * Освобождает экземпляр Realm текущего потока.
+     * Если он больше никем не используется, то закрывается
+     */
+    public void release() {
+        final ThreadScope scope = mThreadScope.get();
+        if (scope == null)
+            throw new IllegalStateException("Realm instance was not acquired on this thread");
+
+        if (--scope.references > 0)
+            return;
+
+        mThreadScope.remove();
+        scope.realm.close();
+
+        mOpenInstancesCount.decrementAndGet();
+        mTotalClosedCount.incrementAndGet();
+    }
+
+    /**
+     * @return Количество экземпляров Realm, открытых в данный момент во всех потоках
+     */
+    public int getOpenInstancesCount() {
+        return mOpenInstancesCount.get();
+    }
+
+    /**
+     * @return Количество ссылок на экземпляр Realm в текущем потоке
+     */
+    public int getLocalReferencesCount() {
+        final ThreadScope scope = mThreadScope.get();
+        return scope == null ? 0 : scope.references;
+    }
+
+    public long getTotalOpenedCount() {
+        return mTotalOpenedCount.get();
+    }
+
+    public long getTotalClosedCount() {
+        return mTotalClosedCount.get();
+    }
+
+    /**
+     * @return Размер файла базы данных в байтах. Файл целиком отображается в память процесса
+     */
+    public long getDatabaseFileSize() {
+        if (!mIsInitialized)
+            return 0;
+
+        final RealmConfiguration configuration = Realm.getDefaultConfiguration();
+        if (configuration == null)
+            return 0;
+
+        return new File(configuration.getPath()).length();
+    }
+
+    /**
+     * @return Объём выделенной нативной памяти процесса в байтах
+     */
+    public long getNativeHeapAllocatedSize() {
+        return Debug.getNativeHeapAllocatedSize();
+    }
+
+    /**
+     * @return Текстовое описание текущего состояния, используется для отладки
+     */
+    public String getStatsDescription() {
+        return "open instances: " + getOpenInstancesCount() + "\n" +
+                "opened total: " + getTotalOpenedCount() + "\n" +
+                "closed total: " + getTotalClosedCount() + "\n" +
+                "database file size: " + getDatabaseFileSize() + " bytes\n" +
+                "native heap allocated: " + getNativeHeapAllocatedSize() + " bytes\n";
+    }
+
+    private void initialize() {
+        if (mIsInitialized)
+            return;
+
+        synchronized (this) {
+            if (mIsInitialized)
+                return;
+
+            final long startTime = StartupTrace.begin("Realm.init");
+            Realm.init(mContext);
+            Realm.setDefaultConfiguration(new RealmConfiguration.Builder()
+                    .schemaVersion(CacheMigration.SCHEMA_VERSION)
+                    .migration(new CacheMigration())
+                    .build());
+            mIsInitialized = true;
+            StartupTrace.end("Realm.init", startTime);
+        }
+    }
+
+    private static class ThreadScope {
+        final Realm realm;
+        int references = 0;
+
+        ThreadScope(Realm realm) {
+            this.realm = realm;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.licht.ytranslator.data.sources;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Переносит настройки, сохранённые предыдущими версиями приложения в SharedPreferences,
+ * в {@link KeyValueStore}.
+ *
+ * Перенос выполняется один раз: значения из всех файлов сохраняются одной записью вместе
+ * с отметкой о переносе, после чего старые файлы очищаются. Если процесс завершится
+ * до записи, перенос повторится при следующем запуске.
+ */
+public final class SharedPreferencesMigration {
+    private static final String TAG = "SharedPreferencesMigration";
+
+    private static final String PREF_MIGRATED = "MIGRATED_FROM_SHARED_PREFERENCES";
+
+    // Файлы настроек предыдущих версий: последний перевод, загруженные локализации,
+    // граница идентификаторов словарных статей. Ключи во всех файлах различны
+    private static final String[] PREF_NAMES = {"user_preferences", "pref_name", "pref_ids"};
+
+    private SharedPreferencesMigration() {
+    }
+
+    public static void migrate(Context context, KeyValueStore store) {
+        if (store.contains(PREF_MIGRATED))
+            return;
+
+        final Map<String, String> values = new LinkedHashMap<>();
+        final List<SharedPreferences> preferences = new ArrayList<>(PREF_NAMES.length);
+        for (String name : PREF_NAMES) {
+            final SharedPreferences sharedPreferences =
+                    context.getSharedPreferences(name, Context.MODE_PRIVATE);
+            preferences.add(sharedPreferences);
+
+            // Логические и числовые значения хранятся строками: "true", "42"
+            for (Map.Entry<String, ?> entry : sharedPreferences.getAll().entrySet())
+                if (entry.getValue() != null)
+                    values.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+
+        values.put(PREF_MIGRATED, Boolean.TRUE.toString());
+        try {
+            store.commitSync(values);
+        } catch (IllegalStateException e) {
+            // Старые файлы не очищаются, перенос повторится при следующем запуске
+            Log.e(TAG, "Unable to migrate preferences", e);
+            return;
+        }
+
+        for (SharedPreferences sharedPreferences : preferences)
+            sharedPreferences.edit().clear().apply();
+    }
+}
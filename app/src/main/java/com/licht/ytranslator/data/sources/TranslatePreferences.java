@@ -1,11 +1,7 @@
 package com.licht.ytranslator.data.sources;
 
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.support.annotation.Nullable;
 
-import com.licht.ytranslator.YTransApp;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -14,11 +10,11 @@ import java.util.List;
 /**
  * Хранит информацию о последнем переводе
  * (переводимый текст, направление перевода, список недавно использованных языков)
+ *
+ * Не зависит от Android: значения хранятся в переданном {@link KeyValueStore}
  */
 public class TranslatePreferences {
-    private static final String PREF_NAME = "user_preferences";
-
-    private final SharedPreferences mSharedPreferences;
+    private final KeyValueStore mStorage;
 
     private static final String PREF_INPUT_TEXT = "INPUT_TEXT";
     private static final String PREF_TRANSLATE_DIRECTION = "TRANSLATE_DIRECTION";
@@ -28,34 +24,41 @@ public class TranslatePreferences {
     // Обновление списка недавно использованных языков проходит по принципу FIFO
     private final int MAX_LANGUAGES_IN_HISTORY = 5;
 
-    public TranslatePreferences() {
+    public TranslatePreferences(KeyValueStore storage) {
         super();
-        mSharedPreferences = YTransApp.get().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        mStorage = storage;
     }
 
     @Nullable
     public String getInputText() {
-        return mSharedPreferences.getString(PREF_INPUT_TEXT, null);
+        return mStorage.getString(PREF_INPUT_TEXT, null);
     }
 
     @Nullable
     public String getTranslateDirection() {
-        return mSharedPreferences.getString(PREF_TRANSLATE_DIRECTION, null);
+        return mStorage.getString(PREF_TRANSLATE_DIRECTION, null);
     }
 
     public void setInputText(String text) {
-        mSharedPreferences.edit().putString(PREF_INPUT_TEXT, text).apply();
+        put(PREF_INPUT_TEXT, text);
     }
 
     public void setDirectionText(String text) {
-        mSharedPreferences.edit().putString(PREF_TRANSLATE_DIRECTION, text).apply();
+        put(PREF_TRANSLATE_DIRECTION, text);
+    }
+
+    /**
+     * Записывает отложенные изменения. Вызывается, когда приложение может уйти в фон
+     */
+    public void flush() {
+        mStorage.flush();
     }
 
     /**
      * @return Список недавно использованных языков
      */
     public ArrayList<String> getRecentlyUsedLanguages() {
-        String languages = mSharedPreferences.getString(PREF_RECENTLY_USED_LANGUAGES, null);
+        String languages = mStorage.getString(PREF_RECENTLY_USED_LANGUAGES, null);
         if (languages == null) {
             setRecentlyUsedLanguages(new ArrayList<>());
             return new ArrayList<>();
@@ -78,7 +81,7 @@ public class TranslatePreferences {
         if (languages.size() > 0)
             buffer.deleteCharAt(buffer.length() - 1);
 
-        mSharedPreferences.edit().putString(PREF_RECENTLY_USED_LANGUAGES, buffer.toString()).apply();
+        put(PREF_RECENTLY_USED_LANGUAGES, buffer.toString());
     }
 
     /**
@@ -128,4 +131,8 @@ public class TranslatePreferences {
         recentlyUsedLanguages.set(0, language);
         setRecentlyUsedLanguages(recentlyUsedLanguages);
     }
+
+    private void put(String key, String value) {
+        mStorage.commit(Collections.singletonMap(key, value));
+    }
 }
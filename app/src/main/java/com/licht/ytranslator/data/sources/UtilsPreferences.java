@@ -1,38 +1,34 @@
 package com.licht.ytranslator.data.sources;
 
-import android.content.Context;
-import android.content.SharedPreferences;
-
-import com.licht.ytranslator.YTransApp;
+import java.util.Collections;
 
 /**
- * Realm не поддерживает автоинкрементальные идентификаторы, поэтому они реализуются вручную
+ * Хранит верхнюю границу идентификаторов словарных статей, выданных {@link BlockIdGenerator}.
+ *
+ * Раньше здесь хранился последний выданный идентификатор. Новое значение - граница,
+ * не меньшая любого выданного идентификатора, поэтому сохранённое старое значение
+ * используется без переноса
  */
-public class UtilsPreferences {
-    private static final String PREF_NAME = "pref_ids";
-
+public class UtilsPreferences implements BlockIdGenerator.Storage {
     private static final String PREF_DICTIONARY_NUMBER = "DICT_NUMBER";
 
-    private final SharedPreferences mSharedPreferences;
+    private final KeyValueStore mStore;
 
-    public UtilsPreferences() {
+    public UtilsPreferences(KeyValueStore store) {
         super();
-        mSharedPreferences = YTransApp.get().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-    }
-
-    public synchronized long generateDictionaryNumber() {
-        final long crntNumber = getNumber();
-        final long newValue = crntNumber + 1;
-        setNumber(newValue);
-
-        return newValue;
+        mStore = store;
     }
 
-    private long getNumber() {
-        return mSharedPreferences.getLong(UtilsPreferences.PREF_DICTIONARY_NUMBER, 0);
+    @Override
+    public long loadHighWaterMark() {
+        return Long.parseLong(mStore.getString(PREF_DICTIONARY_NUMBER, "0"));
     }
 
-    private void setNumber(long newValue) {
-        mSharedPreferences.edit().putLong(UtilsPreferences.PREF_DICTIONARY_NUMBER, newValue).apply();
+    @Override
+    public void saveHighWaterMark(long highWaterMark) {
+        // Граница должна оказаться на диске до выдачи идентификаторов блока, поэтому commitSync.
+        // Запись происходит раз на блок и в потоке разбора ответа, а не в главном потоке.
+        // Если запись не удалась, commitSync бросает исключение, и граница не поднимается
+        mStore.commitSync(Collections.singletonMap(PREF_DICTIONARY_NUMBER, String.valueOf(highWaterMark)));
     }
 }
@@ -1,9 +1,13 @@
 package com.licht.ytranslator.di.component;
 
+import com.licht.ytranslator.data.DataManager;
+import com.licht.ytranslator.data.endpoint.HttpDiskCache;
+import com.licht.ytranslator.data.sources.RealmInstanceManager;
 import com.licht.ytranslator.di.module.ApplicationModule;
 import com.licht.ytranslator.di.module.BusinessModule;
 import com.licht.ytranslator.di.module.DataModule;
 import com.licht.ytranslator.di.module.NetworkModule;
+import com.licht.ytranslator.loaders.TranslateLoader;
 import com.licht.ytranslator.ui.DictionaryView.DictionaryActivity;
 import com.licht.ytranslator.ui.DictionaryView.DictionaryFragment;
 import com.licht.ytranslator.ui.HistoryView.HistoryListFragment;
@@ -19,6 +23,11 @@ import dagger.Component;
 @Singleton
 @Component(modules = {ApplicationModule.class, BusinessModule.class, NetworkModule.class, DataModule.class})
 public interface AppComponent {
+    RealmInstanceManager realmInstanceManager();
+    HttpDiskCache httpDiskCache();
+    DataManager dataManager();
+    TranslateLoader translateLoader();
+
     void inject(TranslateFragment fragment);
     void inject(LoadingScreenActivity activity);
     void inject(SelectLanguageActivity activity);
@@ -1,6 +1,8 @@
 package com.licht.ytranslator.di.module;
 
 import com.licht.ytranslator.data.DataManager;
+import com.licht.ytranslator.data.sources.BufferedStorage;
+import com.licht.ytranslator.data.sources.KeyValueStore;
 import com.licht.ytranslator.data.sources.TranslatePreferences;
 import com.licht.ytranslator.loaders.TranslateLoader;
 import com.licht.ytranslator.presenters.HistoryPresenter;
@@ -25,8 +27,8 @@ public class BusinessModule {
 
     @Provides
     @Singleton
-    TranslatePreferences provideTranslatePreferences() {
-        return new TranslatePreferences();
+    TranslatePreferences provideTranslatePreferences(KeyValueStore store) {
+        return new TranslatePreferences(new BufferedStorage(store));
     }
 
     @Provides
@@ -1,11 +1,25 @@
 package com.licht.ytranslator.di.module;
 
+import com.licht.ytranslator.YTransApp;
 import com.licht.ytranslator.data.DataManager;
+import com.licht.ytranslator.data.DatabaseExecutor;
 import com.licht.ytranslator.data.endpoint.YandexDictionaryAPI;
 import com.licht.ytranslator.data.endpoint.YandexTranslateAPI;
 import com.licht.ytranslator.data.sources.CacheData;
+import com.licht.ytranslator.data.sources.CacheEvictionConfig;
+import com.licht.ytranslator.data.sources.CacheEvictor;
+import com.licht.ytranslator.data.sources.BlockIdGenerator;
 import com.licht.ytranslator.data.sources.CachedPreferences;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
+import com.licht.ytranslator.data.sources.FileKeyValueStore;
+import com.licht.ytranslator.data.sources.KeyValueStore;
+import com.licht.ytranslator.data.sources.HistoryJournal;
+import com.licht.ytranslator.data.sources.RealmInstanceManager;
+import com.licht.ytranslator.data.sources.SharedPreferencesMigration;
 import com.licht.ytranslator.data.sources.UtilsPreferences;
+import com.licht.ytranslator.utils.StartupTrace;
+
+import java.io.File;
 
 import javax.inject.Singleton;
 
@@ -14,30 +28,84 @@ import dagger.Provides;
 
 @Module
 public class DataModule {
+    // Файл журнала изменений истории, ожидающих записи в базу данных
+    private static final String HISTORY_JOURNAL_FILE = "history_journal";
+
+    // Файл настроек приложения
+    private static final String KEY_VALUE_STORE_FILE = "preferences";
+
+    // Количество идентификаторов словарных статей, резервируемых одной записью в настройки
+    private static final int ID_BLOCK_SIZE = 256;
+
     @Provides
     @Singleton
     DataManager provideDataManager(YandexTranslateAPI yandexTranslateAPI,
                                    YandexDictionaryAPI yandexDictionaryAPI,
                                    CacheData cacheData,
-                                   CachedPreferences cachedPreferences) {
-        return new DataManager(yandexTranslateAPI, yandexDictionaryAPI, cacheData, cachedPreferences);
+                                   DatabaseExecutor databaseExecutor,
+                                   CachedPreferences cachedPreferences,
+                                   HistoryJournal historyJournal,
+                                   CacheEvictor cacheEvictor) {
+        return new DataManager(yandexTranslateAPI, yandexDictionaryAPI, cacheData,
+                databaseExecutor, cachedPreferences, historyJournal, cacheEvictor);
+    }
+
+    @Provides
+    @Singleton
+    CacheEvictor provideCacheEvictor(RealmInstanceManager realmInstanceManager) {
+        return new CacheEvictor(realmInstanceManager, CacheEvictionConfig.createDefault());
+    }
+
+    @Provides
+    @Singleton
+    HistoryJournal provideHistoryJournal() {
+        return new HistoryJournal(new File(YTransApp.get().getFilesDir(), HISTORY_JOURNAL_FILE));
+    }
+
+    @Provides
+    @Singleton
+    DatabaseExecutor provideDatabaseExecutor(RealmInstanceManager realmInstanceManager) {
+        return new DatabaseExecutor(realmInstanceManager);
+    }
+
+    @Provides
+    @Singleton
+    RealmInstanceManager provideRealmInstanceManager() {
+        return new RealmInstanceManager(YTransApp.get());
+    }
+
+    @Provides
+    @Singleton
+    CacheData provideCacheData(RealmInstanceManager realmInstanceManager) {
+        return new CacheData(realmInstanceManager);
+    }
+
+    @Provides
+    @Singleton
+    KeyValueStore provideKeyValueStore() {
+        final long startTime = StartupTrace.begin("FileKeyValueStore.load");
+        final FileKeyValueStore store =
+                new FileKeyValueStore(new File(YTransApp.get().getFilesDir(), KEY_VALUE_STORE_FILE));
+        SharedPreferencesMigration.migrate(YTransApp.get(), store);
+        StartupTrace.end("FileKeyValueStore.load", startTime);
+        return store;
     }
 
     @Provides
     @Singleton
-    CacheData provideCacheData() {
-        return new CacheData();
+    CachedPreferences provideAppPreferences(KeyValueStore store) {
+        return new CachedPreferences(store);
     }
 
     @Provides
     @Singleton
-    CachedPreferences provideAppPreferences() {
-        return new CachedPreferences();
+    UtilsPreferences provideUtilsPreferences(KeyValueStore store) {
+        return new UtilsPreferences(store);
     }
 
     @Provides
     @Singleton
-    UtilsPreferences provideUtilsPreferences() {
-        return new UtilsPreferences();
+    DictionaryIdGenerator provideDictionaryIdGenerator(UtilsPreferences utilsPreferences) {
+        return new BlockIdGenerator(utilsPreferences, ID_BLOCK_SIZE);
     }
 }
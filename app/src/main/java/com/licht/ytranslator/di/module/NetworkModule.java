@@ -2,45 +2,114 @@ package com.licht.ytranslator.di.module;
 
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.endpoint.DictionaryResultConverterFactory;
+import com.licht.ytranslator.data.endpoint.DiskCacheInterceptor;
+import com.licht.ytranslator.data.endpoint.HttpClientConfig;
+import com.licht.ytranslator.data.endpoint.HttpDiskCache;
 import com.licht.ytranslator.data.endpoint.YandexDictionaryAPI;
 import com.licht.ytranslator.data.endpoint.YandexTranslateAPI;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import dagger.Module;
 import dagger.Provides;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 @Module
 public class NetworkModule {
+    public static final String TRANSLATE = "translate";
+    public static final String DICTIONARY = "dictionary";
+
+    private static final String HTTP_CACHE_DIRECTORY = "http";
+
+    @Provides
+    @Singleton
+    HttpClientConfig provideHttpClientConfig() {
+        return HttpClientConfig.createDefault();
+    }
+
+    @Provides
+    @Singleton
+    HttpDiskCache provideHttpDiskCache(HttpClientConfig config) {
+        return new HttpDiskCache(new File(YTransApp.get().getCacheDir(), HTTP_CACHE_DIRECTORY),
+                config.getDiskCacheSizeBytes());
+    }
+
+    /**
+     * Общий клиент для обоих API: запросы используют один пул keep-alive соединений
+     * и одну очередь (Dispatcher), поэтому повторные запросы во время набора текста
+     * не устанавливают заново TCP и TLS соединение.
+     *
+     * Сжатие ответов (gzip) OkHttp запрашивает и распаковывает сам,
+     * поэтому заголовок Accept-Encoding вручную не выставляется.
+     *
+     * Ответы, не зависящие от времени запроса, отдаются из дискового кэша без обращения к сети
+     */
+    @Provides
+    @Singleton
+    OkHttpClient provideOkHttpClient(HttpClientConfig config, HttpDiskCache diskCache) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        return new OkHttpClient.Builder()
+                .connectTimeout(config.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getWriteTimeoutMs(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(),
+                        config.getKeepAliveMs(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                // HTTP/2 используется, если его поддерживает сервер, иначе HTTP/1.1
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .addInterceptor(new DiskCacheInterceptor(diskCache))
+                .build();
+    }
+
     @Provides
     @Singleton
-    Retrofit provideTranslateRetrofit() {
+    @Named(TRANSLATE)
+    Retrofit provideTranslateRetrofit(OkHttpClient client) {
         return new Retrofit.Builder()
                 .baseUrl(YTransApp.get().getString(R.string.translate_base_url))
+                .client(client)
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
     }
 
     @Provides
     @Singleton
-    Retrofit provideDictionaryRetrofit() {
+    @Named(DICTIONARY)
+    Retrofit provideDictionaryRetrofit(OkHttpClient client, DictionaryIdGenerator idGenerator) {
         return new Retrofit.Builder()
                 .baseUrl(YTransApp.get().getString(R.string.dictionary_base_url))
+                .client(client)
+                // Ответы словаря разбираются потоково, без построения промежуточного дерева JSON
+                .addConverterFactory(new DictionaryResultConverterFactory(idGenerator))
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
     }
 
     @Provides
     @Singleton
-    YandexTranslateAPI provideYandexTranslateAPI() {
-        return provideTranslateRetrofit().create(YandexTranslateAPI.class);
+    YandexTranslateAPI provideYandexTranslateAPI(@Named(TRANSLATE) Retrofit retrofit) {
+        return retrofit.create(YandexTranslateAPI.class);
     }
 
     @Provides
     @Singleton
-    YandexDictionaryAPI provideYandexDictionaryAPI() {
-        return provideDictionaryRetrofit().create(YandexDictionaryAPI.class);
+    YandexDictionaryAPI provideYandexDictionaryAPI(@Named(DICTIONARY) Retrofit retrofit) {
+        return retrofit.create(YandexDictionaryAPI.class);
     }
 }
@@ -0,0 +1,109 @@
+package com.licht.ytranslator.loaders;
+
+import com.licht.ytranslator.utils.SentenceSplitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Хранит последний переведённый длинный текст по предложениям и их переводы.
+ *
+ * При изменении текста новый текст сравнивается с предыдущим по предложениям:
+ * переводы неизменённых предложений берутся отсюда, без обращения к кэшу и к сети,
+ * а переводить нужно только изменённые предложения.
+ *
+ * Объект не потокобезопасен и используется только из главного потока.
+ */
+class IncrementalTranslation {
+    private String mDirection = null;
+
+    // Переводы предложений последнего переведённого текста
+    private Map<String, String> mTranslations = Collections.emptyMap();
+
+    // Статистика: сколько предложений было взято из предыдущего перевода, и сколько было изменено
+    private long mReusedCount = 0;
+    private long mChangedCount = 0;
+
+    /**
+     * Сравнивает текст с последним переведённым текстом
+     *
+     * @param direction Направление перевода
+     * @param segments  Предложения нового текста
+     * @return Результат сравнения: известные переводы и изменённые предложения
+     */
+    Diff diff(String direction, List<SentenceSplitter.Segment> segments) {
+        // При смене направления перевода предыдущие переводы не подходят
+        final boolean isSameDirection = direction.equals(mDirection);
+
+        final Map<String, String> known = new HashMap<>();
+        final Set<String> changed = new LinkedHashSet<>();
+        for (SentenceSplitter.Segment segment : segments) {
+            if (!segment.isTranslatable() || known.containsKey(segment.text) || changed.contains(segment.text))
+                continue;
+
+            // Предложение считается неизменённым, если оно было в предыдущем тексте,
+            // в том числе, если оно сместилось из-за вставки или удаления других предложений
+            final String translation = isSameDirection ? mTranslations.get(segment.text) : null;
+            if (translation != null) {
+                known.put(segment.text, translation);
+                ++mReusedCount;
+            } else {
+                changed.add(segment.text);
+                ++mChangedCount;
+            }
+        }
+
+        return new Diff(known, new ArrayList<>(changed));
+    }
+
+    /**
+     * Запоминает переведённый текст для сравнения со следующими изменениями
+     *
+     * @param direction    Направление перевода
+     * @param segments     Предложения текста
+     * @param translations Переводы предложений
+     */
+    void commit(String direction, List<SentenceSplitter.Segment> segments, Map<String, String> translations) {
+        mDirection = direction;
+
+        // Храним переводы только тех предложений, которые есть в тексте
+        final Map<String, String> current = new HashMap<>();
+        for (SentenceSplitter.Segment segment : segments)
+            if (segment.isTranslatable() && translations.containsKey(segment.text))
+                current.put(segment.text, translations.get(segment.text));
+        mTranslations = current;
+    }
+
+    void reset() {
+        mDirection = null;
+        mTranslations = Collections.emptyMap();
+    }
+
+    long getReusedCount() {
+        return mReusedCount;
+    }
+
+    long getChangedCount() {
+        return mChangedCount;
+    }
+
+    /**
+     * Результат сравнения текста с предыдущим
+     */
+    static class Diff {
+        // Переводы неизменённых предложений
+        final Map<String, String> known;
+        // Изменённые (или новые) предложения, которые нужно перевести, без повторов
+        final List<String> changed;
+
+        Diff(Map<String, String> known, List<String> changed) {
+            this.known = known;
+            this.changed = changed;
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.licht.ytranslator.loaders;
 
-import com.google.gson.JsonObject;
+import android.os.Handler;
+import android.os.Looper;
+
 import com.licht.ytranslator.data.DataManager;
 import com.licht.ytranslator.data.model.DictionaryObject;
+import com.licht.ytranslator.data.model.DictionaryResult;
 import com.licht.ytranslator.data.model.HistoryObject;
 import com.licht.ytranslator.data.model.Result;
 import com.licht.ytranslator.data.model.WordObject;
 import com.licht.ytranslator.presenters.OnTranslateResultListener;
-import com.licht.ytranslator.utils.DictionaryAnswerParser;
 import com.licht.ytranslator.utils.LocalizationUtils;
+import com.licht.ytranslator.utils.SentenceSplitter;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import io.realm.RealmList;
 import retrofit2.Call;
@@ -20,21 +27,160 @@ import retrofit2.Response;
 /**
  * Получает переводы для введённых текстов и возвращает их с помощью вызовов callback функций
  * Перед началом загрузки, проверяется наличие кэшированного перевода в базе данных.
+ *
+ * Запросы, вызванные вводом текста, откладываются до паузы в наборе. Если за время ожидания
+ * (или во время выполнения запроса) пришёл новый текст, то предыдущий запрос отменяется,
+ * и листенер получает только результат последнего запроса.
+ *
+ * Текст из нескольких предложений переводится по предложениям: закэшированные предложения
+ * берутся из кэша, остальные отправляются в одном запросе, и перевод собирается из частей.
  */
 public class TranslateLoader {
+    // Время (в мс), которое должно пройти после последнего изменения текста, чтоб отправить запрос
+    public static final long DEFAULT_INPUT_DELAY_MS = 400;
+
     private final DataManager mDataManager;
 
     // Подписчик, которому будет возвращаться результат
     private OnTranslateResultListener mListener = null;
 
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private long mInputDelayMs;
+
+    // Отложенный запрос, который будет выполнен после паузы в наборе текста
+    private Runnable mPendingRequest = null;
+
+    // Выполняющиеся в данный момент запросы. Хранятся для того, чтоб отменить их при вводе нового текста
+    private Call<Result> mTranslateCall = null;
+    private Call<DictionaryResult> mDictionaryCall = null;
+
+    // Номер текущего запроса. Увеличивается при отмене запросов, чтоб результаты поиска в кэше,
+    // полученные для устаревшего текста, не передавались листенеру
+    private long mRequestGeneration = 0;
+
+    // Статистика запросов: сколько было отправлено в сеть, и сколько было отброшено
+    // (не дождались паузы в наборе, либо были отменены во время выполнения)
+    private long mSentRequestsCount = 0;
+    private long mDroppedRequestsCount = 0;
+
+    // Последний переведённый длинный текст по предложениям, для перевода только изменённых предложений
+    private final IncrementalTranslation mIncrementalTranslation = new IncrementalTranslation();
+
     public TranslateLoader(DataManager dataManager) {
+        this(dataManager, DEFAULT_INPUT_DELAY_MS);
+    }
+
+    public TranslateLoader(DataManager dataManager, long inputDelayMs) {
         mDataManager = dataManager;
+        mInputDelayMs = inputDelayMs;
     }
 
     public void setOnTranslateResultListener(OnTranslateResultListener listener) {
         mListener = listener;
     }
 
+    /**
+     * Устанавливает время ожидания паузы в наборе текста
+     *
+     * @param inputDelayMs время в миллисекундах
+     */
+    public void setInputDelay(long inputDelayMs) {
+        mInputDelayMs = inputDelayMs;
+    }
+
+    /**
+     * @return Количество запросов, отправленных к API
+     */
+    public long getSentRequestsCount() {
+        return mSentRequestsCount;
+    }
+
+    /**
+     * @return Количество запросов, которые были отброшены или отменены из-за ввода нового текста
+     */
+    public long getDroppedRequestsCount() {
+        return mDroppedRequestsCount;
+    }
+
+    /**
+     * @return Количество предложений, перевод которых был взят из предыдущего перевода текста
+     */
+    public long getReusedSentencesCount() {
+        return mIncrementalTranslation.getReusedCount();
+    }
+
+    /**
+     * @return Количество изменённых предложений, перевод которых искался в кэше или запрашивался из сети
+     */
+    public long getChangedSentencesCount() {
+        return mIncrementalTranslation.getChangedCount();
+    }
+
+    /**
+     * @return Статистика запросов в текстовом виде
+     */
+    public String getStatsDescription() {
+        return "sent requests: " + mSentRequestsCount + "\n" +
+                "dropped requests: " + mDroppedRequestsCount + "\n" +
+                "reused sentences: " + getReusedSentencesCount() + "\n" +
+                "changed sentences: " + getChangedSentencesCount() + "\n";
+    }
+
+    /**
+     * Запрашивает перевод и словарную статью для введённого текста после паузы в наборе.
+     * Все ранее запрошенные, но ещё не завершённые запросы отменяются.
+     *
+     * @param translateKey ключ API Яндекс Переводчика
+     * @param dictionaryKey ключ API Яндекс Словаря
+     * @param text переводимый текст
+     * @param direction направление перевода
+     */
+    public void requestDelayed(String translateKey, String dictionaryKey, String text, String direction) {
+        cancelPendingRequests();
+
+        mPendingRequest = () -> {
+            mPendingRequest = null;
+            translate(translateKey, text, direction);
+            getDictionaryMeanings(dictionaryKey, text, direction);
+        };
+        mHandler.postDelayed(mPendingRequest, mInputDelayMs);
+    }
+
+    /**
+     * Отменяет запросы и забывает последний переведённый текст. Вызывается, когда текст стёрт:
+     * переводы его предложений больше не понадобятся, и следующий текст переводится целиком
+     */
+    public void reset() {
+        cancelPendingRequests();
+        mIncrementalTranslation.reset();
+    }
+
+    /**
+     * Отменяет отложенный запрос и запросы, которые выполняются в данный момент
+     */
+    public void cancelPendingRequests() {
+        ++mRequestGeneration;
+
+        if (mPendingRequest != null) {
+            mHandler.removeCallbacks(mPendingRequest);
+            mPendingRequest = null;
+            ++mDroppedRequestsCount;
+        }
+
+        if (mTranslateCall != null) {
+            mTranslateCall.cancel();
+            mTranslateCall = null;
+            ++mDroppedRequestsCount;
+        }
+
+        if (mDictionaryCall != null) {
+            mDictionaryCall.cancel();
+            mDictionaryCall = null;
+            ++mDroppedRequestsCount;
+        }
+    }
+
     /**
      * Обращается к API Яндекс переводчика, для получения перевода.
      * При получении результата, передаёт его листенеру.
@@ -44,19 +190,133 @@ public class TranslateLoader {
      * @param direction направление перевода
      */
     public void translate(String key, String text, String direction) {
+        final long generation = mRequestGeneration;
+
+        // Длинный текст переводится по предложениям. Если он получен редактированием
+        // предыдущего текста, то переводятся только изменённые предложения
+        final List<SentenceSplitter.Segment> segments = SentenceSplitter.split(text);
+        final IncrementalTranslation.Diff diff = SentenceSplitter.countTranslatable(segments) > 1 ?
+                mIncrementalTranslation.diff(direction, segments) : null;
+        if (diff != null && !diff.known.isEmpty()) {
+            translateSegments(key, text, direction, segments, diff);
+            return;
+        }
 
         // Сначала проверяем, был ли этот запрос закеширован
-        final HistoryObject historyObject = mDataManager.getHistoryWord(text, direction);
-        // Если нашли перевод в кэше, то возвращаем его
-        if (historyObject != null && mListener != null) {
-            mListener.onTranslateResult(historyObject);
+        // Перевод ищется в оперативной памяти, затем в базе данных (в фоновом потоке)
+        mDataManager.getHistoryWordAsync(text, direction, historyObject -> {
+            // Пока искали перевод в кэше, был введён новый текст
+            if (generation != mRequestGeneration)
+                return;
+
+            // Если нашли перевод в кэше, то возвращаем его
+            if (historyObject != null) {
+                if (mListener != null)
+                    mListener.onTranslateResult(historyObject);
+                return;
+            }
+
+            // Уже переведённые предложения берутся из кэша, остальные запрашиваются одним запросом
+            if (diff != null)
+                translateSegments(key, text, direction, segments, diff);
+            else
+                requestTranslationFromApi(key, text, direction);
+        });
+    }
+
+    private void translateSegments(String key, String text, String direction,
+                                   List<SentenceSplitter.Segment> segments,
+                                   IncrementalTranslation.Diff diff) {
+        final Map<String, String> translations = new HashMap<>(diff.known);
+
+        // Текст не изменился по сравнению с последним переведённым (например, изменились только пробелы)
+        if (diff.changed.isEmpty()) {
+            onSegmentsTranslated(text, direction, segments, translations);
             return;
         }
 
+        final long generation = mRequestGeneration;
+        mDataManager.getTranslationsAsync(diff.changed, direction, cached -> {
+            if (generation != mRequestGeneration)
+                return;
+
+            for (HistoryObject historyObject : cached.values())
+                translations.put(historyObject.getWord(), historyObject.getTranslate());
+
+            // Непереведённые предложения (повторы в списке изменённых предложений уже исключены)
+            final List<String> missing = new ArrayList<>();
+            for (String sentence : diff.changed)
+                if (!translations.containsKey(sentence))
+                    missing.add(sentence);
+
+            if (missing.isEmpty())
+                onSegmentsTranslated(text, direction, segments, translations);
+            else
+                requestSegmentsFromApi(key, text, direction, segments, translations, missing);
+        });
+    }
+
+    private void requestSegmentsFromApi(String key, String text, String direction,
+                                        List<SentenceSplitter.Segment> segments,
+                                        Map<String, String> translations,
+                                        List<String> missing) {
+        final Call<Result> translateCall = mDataManager.requestBatchTranslation(key, missing, direction);
+        mTranslateCall = translateCall;
+        ++mSentRequestsCount;
+
+        translateCall.enqueue(new Callback<Result>() {
+            @Override
+            public void onResponse(Call<Result> call, Response<Result> response) {
+                if (call != mTranslateCall)
+                    return;
+                mTranslateCall = null;
+
+                // Переводы возвращаются в порядке запрошенных предложений
+                if (response == null || !response.isSuccessful() || response.body() == null ||
+                        response.body().text == null || response.body().text.size() != missing.size()) {
+                    onTranslateFailure();
+                    return;
+                }
+
+                final Date now = new Date();
+                final List<HistoryObject> sentenceObjects = new ArrayList<>(missing.size());
+                for (int i = 0; i < missing.size(); ++i) {
+                    final String translation = response.body().text.get(i);
+                    translations.put(missing.get(i), translation);
+                    sentenceObjects.add(new HistoryObject(missing.get(i), translation, direction, now));
+                }
+
+                // Переводы предложений запоминаются, чтоб при изменении текста не запрашивать их заново
+                mDataManager.stageTranslations(sentenceObjects);
+
+                onSegmentsTranslated(text, direction, segments, translations);
+            }
+
+            @Override
+            public void onFailure(Call<Result> call, Throwable t) {
+                if (call.isCanceled() || call != mTranslateCall)
+                    return;
+                mTranslateCall = null;
+
+                onTranslateFailure();
+            }
+        });
+    }
+
+    private void requestTranslationFromApi(String key, String text, String direction) {
         // Результат закэширован не был, поэтому обращаемся к API
-        mDataManager.requestTranslation(key, text, direction).enqueue(new Callback<Result>() {
+        final Call<Result> translateCall = mDataManager.requestTranslation(key, text, direction);
+        mTranslateCall = translateCall;
+        ++mSentRequestsCount;
+
+        translateCall.enqueue(new Callback<Result>() {
             @Override
             public void onResponse(Call<Result> call, Response<Result> response) {
+                // Пока выполнялся запрос, был введён новый текст. Этот результат уже не нужен
+                if (call != mTranslateCall)
+                    return;
+                mTranslateCall = null;
+
                 // Ответ был получен, но запрос прошёл неудачно (например, если сервер вернул ошибку)
                 // Мы предупреждаем пользователю, что по какой-то причине результат не был получен
                 if (response == null || !response.isSuccessful()) {
@@ -65,19 +325,16 @@ public class TranslateLoader {
                 }
 
                 // Ответ получен, получили перевод
-                // Кэшируем его, вызываем callback функция листенера
-                final String result = response.body().text.get(0);
-                HistoryObject historyObject =
-                        new HistoryObject(text, result, direction, new Date());
-                mDataManager.addWordToHistory(historyObject);
-
-                if (mListener != null)
-                    mListener.onTranslateResult(historyObject);
-
+                onTranslationReceived(text, response.body().text.get(0), direction);
             }
 
             @Override
             public void onFailure(Call<Result> call, Throwable t) {
+                // Запрос был отменён нами самими, сообщать об ошибке не нужно
+                if (call.isCanceled() || call != mTranslateCall)
+                    return;
+                mTranslateCall = null;
+
                 // Ответ не был получен (проблемы с интернетом, с сервером, и т.д.)
                 // Предупреждаем пользователя, что не получилось получить результат
                 onTranslateFailure();
@@ -94,31 +351,53 @@ public class TranslateLoader {
      * @param direction направление перевода
      */
     public void getDictionaryMeanings(String key, String text, String direction) {
+        final long generation = mRequestGeneration;
 
-        // Если нашли закешированный результат, возвращаем его
-        final DictionaryObject dictionaryObject = mDataManager.getCachedWord(text, direction);
-        if (dictionaryObject != null && mListener != null) {
-            mListener.onDictionaryResult(dictionaryObject);
-            return;
-        }
+        mDataManager.getCachedWordAsync(text, direction, dictionaryObject -> {
+            if (generation != mRequestGeneration)
+                return;
 
+            // Если нашли закешированный результат, возвращаем его
+            if (dictionaryObject != null) {
+                if (mListener != null)
+                    mListener.onDictionaryResult(dictionaryObject);
+                return;
+            }
+
+            requestDictionaryFromApi(key, text, direction);
+        });
+    }
+
+    private void requestDictionaryFromApi(String key, String text, String direction) {
         // Не нашли переводв в кэше, поэтому обращаемся к API
-        mDataManager.getDataFromDictionary(key, text, direction,
-                LocalizationUtils.getCurrentLocalizationSymbol()).enqueue(new Callback<JsonObject>() {
+        final Call<DictionaryResult> dictionaryCall = mDataManager.getDataFromDictionary(key, text, direction,
+                LocalizationUtils.getCurrentLocalizationSymbol());
+        mDictionaryCall = dictionaryCall;
+        ++mSentRequestsCount;
+
+        dictionaryCall.enqueue(new Callback<DictionaryResult>() {
             @Override
-            public void onResponse(Call<JsonObject> call, Response<JsonObject> response) {
+            public void onResponse(Call<DictionaryResult> call, Response<DictionaryResult> response) {
+                // Результат устарел, т.к. уже был введён новый текст
+                if (call != mDictionaryCall)
+                    return;
+                mDictionaryCall = null;
 
-                // Парсим результат, кэшируем и возвращаем его
-                RealmList<WordObject> dicts = DictionaryAnswerParser.parse(response.body());
+                // Результат уже разобран конвертером Retrofit, кэшируем и возвращаем его
+                final DictionaryResult result = response.body();
+                final RealmList<WordObject> dicts =
+                        result == null ? new RealmList<>() : result.getDictionaries();
                 DictionaryObject w = new DictionaryObject(text, direction, dicts);
-                mDataManager.cacheDictionaryWord(w);
+                mDataManager.cacheDictionaryWordAsync(w);
 
                 if (mListener != null)
                     mListener.onDictionaryResult(w);
             }
 
             @Override
-            public void onFailure(Call<JsonObject> call, Throwable t) {
+            public void onFailure(Call<DictionaryResult> call, Throwable t) {
+                if (call == mDictionaryCall)
+                    mDictionaryCall = null;
                 // Если результат по какой-то причине не был получен,
                 // то не нужно предпринимать дополнительных действий - экран детальной информации о
                 // переводе останется недоступным.
@@ -126,6 +405,43 @@ public class TranslateLoader {
         });
     }
 
+    /**
+     * Собирает перевод текста из переводов предложений и запоминает их для следующих изменений текста
+     */
+    private void onSegmentsTranslated(String text, String direction,
+                                      List<SentenceSplitter.Segment> segments,
+                                      Map<String, String> translations) {
+        mIncrementalTranslation.commit(direction, segments, translations);
+        final String translation = SentenceSplitter.join(segments, translations);
+
+        // Весь текст мог уже быть в кэше (например, в истории или в избранном).
+        // В таком случае возвращаем сохранённый объект, чтоб не потерять его состояние
+        final long generation = mRequestGeneration;
+        mDataManager.getHistoryWordAsync(text, direction, historyObject -> {
+            if (generation != mRequestGeneration)
+                return;
+
+            if (historyObject != null) {
+                if (mListener != null)
+                    mListener.onTranslateResult(historyObject);
+            } else
+                onTranslationReceived(text, translation, direction);
+        });
+    }
+
+    /**
+     * Запоминает полученный перевод текста и передаёт его листенеру.
+     * Текст может быть ещё недописан, поэтому перевод не записывается в базу данных,
+     * пока пользователь не начнёт с ним работать
+     */
+    private void onTranslationReceived(String text, String translation, String direction) {
+        final HistoryObject historyObject = new HistoryObject(text, translation, direction, new Date());
+        mDataManager.stageTranslation(historyObject);
+
+        if (mListener != null)
+            mListener.onTranslateResult(historyObject);
+    }
+
     private void onTranslateFailure() {
         if (mListener != null)
             mListener.onTranslateFailure();
@@ -1,6 +1,7 @@
 package com.licht.ytranslator.presenters;
 
 import com.licht.ytranslator.data.DataManager;
+import com.licht.ytranslator.data.HistoryList;
 import com.licht.ytranslator.presenters.base.IPresenter;
 import com.licht.ytranslator.ui.HistoryView.IHistoryView;
 
@@ -15,6 +16,13 @@ public class HistoryPresenter implements IPresenter<IHistoryView> {
 
     private IHistoryView view;
 
+    // Список, показываемый на экране. Обновляется после изменений истории, пока не будет закрыт
+    private HistoryList historyList = null;
+    private boolean starredOnly = false;
+
+    // Последний введённый поиск. Результаты более ранних поисков отбрасываются
+    private String searchQuery = "";
+
     public HistoryPresenter(DataManager dataManager) {
         super();
         this.dataManager = dataManager;
@@ -28,6 +36,7 @@ public class HistoryPresenter implements IPresenter<IHistoryView> {
     @Override
     public void unbindView() {
         view = null;
+        closeHistoryList();
     }
 
     /**
@@ -36,10 +45,33 @@ public class HistoryPresenter implements IPresenter<IHistoryView> {
      * @param starredOnly Вернуть список из избранных слов
      */
     public void requestData(boolean starredOnly) {
-        if (starredOnly)
-            view.setData(dataManager.getStarredWords());
-        else
-            view.setData(dataManager.getHistoryWords());
+        closeHistoryList();
+        this.starredOnly = starredOnly;
+        this.searchQuery = "";
+
+        historyList = dataManager.openHistoryList(starredOnly);
+        view.setData(historyList);
+    }
+
+    /**
+     * Поиск переводов, где введённый текст встречается в тексте, или в переводе
+     *
+     * @param query Введённый текст. Если он пуст, показывается весь список
+     */
+    public void search(String query) {
+        searchQuery = query == null ? "" : query.trim();
+        if (searchQuery.isEmpty()) {
+            if (view != null)
+                view.hideSearchResults();
+            return;
+        }
+
+        final String requestedQuery = searchQuery;
+        dataManager.searchHistoryAsync(requestedQuery, starredOnly, items -> {
+            // При ошибке поиска показывается пустой результат
+            if (view != null && requestedQuery.equals(searchQuery))
+                view.showSearchResults(items != null ? items : new ArrayList<>());
+        });
     }
 
     /**
@@ -48,7 +80,7 @@ public class HistoryPresenter implements IPresenter<IHistoryView> {
      * @param direction       Направление перевода
      */
     public void setWordStarredState(String text, String direction) {
-        dataManager.reverseWordStarred(text, direction);
+        dataManager.reverseWordStarredAsync(text, direction, null);
     }
 
     /**
@@ -59,8 +91,16 @@ public class HistoryPresenter implements IPresenter<IHistoryView> {
     public void clearHistory(boolean starredOnly) {
         dataManager.clearHistory(starredOnly);
 
+        // Список истории обновится сам после записи, а результаты поиска устарели
+        searchQuery = "";
         if (view != null)
-            view.setData(new ArrayList<>());
+            view.hideSearchResults();
     }
 
+    private void closeHistoryList() {
+        if (historyList != null) {
+            historyList.close();
+            historyList = null;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.licht.ytranslator.presenters;
 
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.DataCallback;
 import com.licht.ytranslator.data.DataManager;
 import com.licht.ytranslator.data.model.HistoryObject;
 import com.licht.ytranslator.data.model.DictionaryObject;
@@ -51,6 +52,15 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
         this.view = null;
     }
 
+    /**
+     * Вызывается, когда экран перевода перестаёт быть видимым.
+     * Отложенные изменения истории и настроек записываются сразу, т.к. приложение может уйти в фон
+     */
+    public void onStop() {
+        translatePreferences.flush();
+        dataManager.flushPendingWrites();
+    }
+
     /**
      * Инициализирует окно перевода значениями, которые были при закрытии
      */
@@ -123,6 +133,9 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
         translatePreferences.setInputText(content);
 
         if ("".equals(content)) {
+            // Текст стёрт, ждать результатов ранее отправленных запросов
+            // и хранить переводы предложений прежнего текста больше не нужно
+            translateLoader.reset();
             view.setTranslatedText(content, "");
             return;
         }
@@ -136,12 +149,11 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
         final String direction = translatePreferences.getTranslateDirection();
 
         // Делаем асинхронные запросы к Яндекс Переводчику и Яндекс Словарю через лоадер
+        // Лоадер дожидается паузы в наборе текста, поэтому запросы не отправляются на каждое нажатие
 
         final String key = YTransApp.get().getString(R.string.key_translate);
-        translateLoader.translate(key, text, direction);
-
         final String keyDict = YTransApp.get().getString(R.string.key_dictionary);
-        translateLoader.getDictionaryMeanings(keyDict, text, direction);
+        translateLoader.requestDelayed(key, keyDict, text, direction);
     }
 
     public void onKeyboardHide() {
@@ -227,16 +239,20 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
 
 
     public void onOpenDictionaryClick() {
+        // Пользователь работает с переводом, поэтому он сохраняется
+        dataManager.commitTranslation(translatePreferences.getInputText(),
+                translatePreferences.getTranslateDirection());
+
         if (view != null)
             view.openDictionary(translatePreferences.getInputText(), translatePreferences.getTranslateDirection());
     }
 
     public void onStarredClick() {
-        // Обновили статус избранности перевода
-        final boolean isStarredNow =  updateStarredWord();
-
-        if (view != null)
-            view.isStarredText(isStarredNow);
+        // Обновляем статус избранности перевода
+        updateStarredWord(isStarredNow -> {
+            if (view != null)
+                view.isStarredText(isStarredNow);
+        });
     }
 
     public void onStartAudio() {
@@ -258,10 +274,6 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
         return dataManager.getLanguageByCode(sym);
     }
 
-    public ArrayList<String> getLanguagesList() {
-        return dataManager.getLanguagesList();
-    }
-
     @Override
     public void onTranslateResult(HistoryObject historyObject) {
         // Получили результат от асинхронного запроса к Яндекс Переводчику, обрабатываем его
@@ -284,15 +296,18 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
         final String text = translatePreferences.getInputText();
         final String direction = translatePreferences.getTranslateDirection();
 
-        final HistoryObject historyObject = dataManager.getHistoryWord(text, direction);
-        if (historyObject == null)
-            return;
+        // Пользователь работает с переводом, поэтому он сохраняется
+        dataManager.commitTranslation(text, direction);
+        dataManager.getHistoryWordAsync(text, direction, historyObject -> {
+            if (historyObject == null)
+                return;
 
-        final String translate = historyObject.getTranslate();
-        final String res = Utils.formattedTranslatingToShare(text, translate);
+            final String translate = historyObject.getTranslate();
+            final String res = Utils.formattedTranslatingToShare(text, translate);
 
-        if (view != null)
-            view.shareText(res);
+            if (view != null)
+                view.shareText(res);
+        });
     }
 
     /**
@@ -301,19 +316,19 @@ public class TranslatePresenter implements IPresenter<ITranslateView>, OnTransla
     private void addExistingTranslatingToHistory() {
         final String text = translatePreferences.getInputText();
         final String direction = translatePreferences.getTranslateDirection();
-        dataManager.addWordToHistory(text, direction);
+        dataManager.addWordToHistoryAsync(text, direction);
     }
 
     /**
      * Изменяет избранность текущего перевода
      *
-     * @return True, если перевод был добавлен в список избранных, False - если был удалён
+     * @param callback Получает True, если перевод был добавлен в список избранных, False - если был удалён
      */
-    private boolean updateStarredWord() {
+    private void updateStarredWord(DataCallback<Boolean> callback) {
         final String text = translatePreferences.getInputText();
         final String direction = translatePreferences.getTranslateDirection();
 
-        return dataManager.reverseWordStarred(text, direction);
+        dataManager.reverseWordStarredAsync(text, direction, callback);
     }
 
     private void updateLanguagePairInView(String direction) {
@@ -29,6 +29,9 @@ public class DictionaryActivity extends AppCompatActivity {
 
     private DictionaryObject mDictionaryObject;
 
+    // Статья загружается в фоновом потоке, и экран может быть закрыт раньше
+    private boolean mIsDestroyed = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -40,9 +43,30 @@ public class DictionaryActivity extends AppCompatActivity {
         // используется
         String word = getIntent().getStringExtra("WORD");
         String dirs = getIntent().getStringExtra("DIRECTION");
-        mDictionaryObject = dataManager.getCachedWord(word, dirs);
-
         initUI();
+        dataManager.getCachedWordAsync(word, dirs, dictionaryObject -> {
+            if (mIsDestroyed)
+                return;
+
+            // Статья могла быть вытеснена из кэша, показывать нечего
+            if (dictionaryObject == null) {
+                finish();
+                return;
+            }
+
+            mDictionaryObject = dictionaryObject;
+            ViewPager viewPager = (ViewPager) findViewById(R.id.viewpager);
+            setupViewPager(viewPager);
+
+            TabLayout tabLayout = (TabLayout) findViewById(R.id.tabs);
+            tabLayout.setupWithViewPager(viewPager);
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mIsDestroyed = true;
     }
 
     @Override
@@ -56,12 +80,6 @@ public class DictionaryActivity extends AppCompatActivity {
         setSupportActionBar(toolbar);
         getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         getSupportActionBar().setTitle(getString(R.string.dictionary));
-
-        ViewPager viewPager = (ViewPager) findViewById(R.id.viewpager);
-        setupViewPager(viewPager);
-
-        TabLayout tabLayout = (TabLayout) findViewById(R.id.tabs);
-        tabLayout.setupWithViewPager(viewPager);
     }
 
 
@@ -74,24 +74,30 @@ public class DictionaryFragment extends Fragment implements IDictionaryView {
 
         unbinder = ButterKnife.bind(this, root);
 
-        final WordObject mWordObject = dataManager.getCachedDictionary(mDictionaryID);
-
-        dictionaryWord.setText(mWordObject.getText());
-        if("".equals(mWordObject.getTrans()))
-            dictionaryTranscription.setVisibility(View.VISIBLE);
-        else
-            dictionaryTranscription.setText(String.format("[%s]", mWordObject.getTrans()));
-
         rvDictionary.setHasFixedSize(true);
         RecyclerView.LayoutManager mLayoutManager = new LinearLayoutManager(getContext());
         rvDictionary.setLayoutManager(mLayoutManager);
 
-        WordAdapter mAdapter = new WordAdapter(this, dataManager.getCachedDictionary(mDictionaryID));
-        rvDictionary.setAdapter(mAdapter);
+        dataManager.getCachedDictionaryAsync(mDictionaryID, this::showWordObject);
 
         return root;
     }
 
+    private void showWordObject(WordObject wordObject) {
+        // Представление было уничтожено, пока толкование загружалось
+        if (getView() == null || wordObject == null)
+            return;
+
+        dictionaryWord.setText(wordObject.getText());
+        if("".equals(wordObject.getTrans()))
+            dictionaryTranscription.setVisibility(View.VISIBLE);
+        else
+            dictionaryTranscription.setText(String.format("[%s]", wordObject.getTrans()));
+
+        WordAdapter mAdapter = new WordAdapter(this, wordObject);
+        rvDictionary.setAdapter(mAdapter);
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -11,7 +11,6 @@ import android.widget.TextView;
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.data.model.WordObject;
 import com.licht.ytranslator.data.model.ExampleObject;
-import com.licht.ytranslator.data.model.StringWrapper;
 import com.licht.ytranslator.data.model.WordMeaningObject;
 
 class WordAdapter extends RecyclerView.Adapter<WordAdapter.WordViewHolder> {
@@ -64,8 +63,8 @@ class WordAdapter extends RecyclerView.Adapter<WordAdapter.WordViewHolder> {
         WordMeaningObject wordMeaningObject = wordObject.getWordMeaningObjects().get(position);
 
         StringBuilder result = new StringBuilder();
-        for (StringWrapper stringWrapper : wordMeaningObject.getMeanings())
-            result.append(stringWrapper.getContent()).append(",");
+        for (String meaning : wordMeaningObject.getMeanings())
+            result.append(meaning).append(",");
         if (result.length() > 0)
             result.deleteCharAt(result.length() - 1);
 
@@ -78,8 +77,8 @@ class WordAdapter extends RecyclerView.Adapter<WordAdapter.WordViewHolder> {
 
         final StringBuilder result = new StringBuilder();
         result.append(wordMeaningObject.getText()).append(", ");
-        for (StringWrapper stringWrapper : wordMeaningObject.getSynonimes())
-            result.append(stringWrapper.getContent()).append(", ");
+        for (String synonym : wordMeaningObject.getSynonimes())
+            result.append(synonym).append(", ");
 
         if (result.length() > 1)
             result.delete(result.length() - 2, result.length());
@@ -93,9 +92,9 @@ class WordAdapter extends RecyclerView.Adapter<WordAdapter.WordViewHolder> {
 
         final StringBuilder stringBuilder = new StringBuilder();
         for (ExampleObject exampleObject : wordMeaningObject.getExampleObjects()) {
-            stringBuilder.append(exampleObject.getPhrase().getContent()).append("\u2014");
-            for (StringWrapper s : exampleObject.getTranslates())
-                stringBuilder.append(s.getContent()).append(";");
+            stringBuilder.append(exampleObject.getPhrase()).append("\u2014");
+            for (String s : exampleObject.getTranslates())
+                stringBuilder.append(s).append(";");
             stringBuilder.append("\n");
         }
 
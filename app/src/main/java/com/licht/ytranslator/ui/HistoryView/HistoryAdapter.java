@@ -4,27 +4,28 @@ import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.licht.ytranslator.R;
+import com.licht.ytranslator.data.HistoryList;
 import com.licht.ytranslator.data.model.HistoryObject;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Адаптер для истории переводов (и списка избранных переводов) с поддержкой поиска по списку
+ * Адаптер для истории переводов (и списка избранных переводов) с поддержкой поиска по списку.
+ *
+ * Список истории связан с базой данных и показывается постранично: следующая страница
+ * запрашивается заранее, когда до конца открытой части остаётся меньше половины страницы.
+ * После изменения истории список обновляется сам
  */
-class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.WordViewHolder>
-        implements Filterable {
+class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.WordViewHolder> {
 
-    private final List<HistoryObject> items = new ArrayList<>();
-    private final List<HistoryObject> filteredItems = new ArrayList<>();
+    private HistoryList items = null;
 
-    private TranslateFilter filter;
+    // Результаты поиска (null, если поиск не выполняется)
+    private List<HistoryObject> searchResults = null;
 
     private final IHistoryView view;
 
@@ -33,16 +34,32 @@ class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.WordViewHolder>
         this.view = view;
     }
 
-    public void setData(List<HistoryObject> items) {
-        this.items.clear();
-        this.items.addAll(items);
+    public void setData(HistoryList items) {
+        if (this.items != null)
+            this.items.setListener(null);
 
-        this.filteredItems.clear();
-        this.filteredItems.addAll(items);
+        this.items = items;
+        this.searchResults = null;
+        items.setListener(this::notifyDataSetChanged);
 
         notifyDataSetChanged();
     }
 
+    /**
+     * @param searchResults Найденные переводы, или null, чтобы снова показать весь список
+     */
+    public void setSearchResults(List<HistoryObject> searchResults) {
+        this.searchResults = searchResults;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @return True, если данные для показа уже получены
+     */
+    public boolean isLoaded() {
+        return searchResults != null || (items != null && items.isLoaded());
+    }
+
     @Override
     public WordViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         final View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_word_in_history, parent, false);
@@ -51,39 +68,54 @@ class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.WordViewHolder>
 
     @Override
     public void onBindViewHolder(WordViewHolder holder, int position) {
-        final HistoryObject item = filteredItems.get(position);
+        final HistoryObject item = getItem(position);
+        prefetch(position);
+
+        final String word = item.getWord();
+        final String direction = item.getDirection();
 
-        holder.tvPhrase.setText(item.getWord());
+        holder.tvPhrase.setText(word);
         holder.tvTrans.setText(item.getTranslate());
-        holder.tvDirection.setText(item.getDirection());
+        holder.tvDirection.setText(direction);
 
         holder.ivIcon.setImageDrawable(null);
 
         holder.setIcon(item.isFavorites());
 
         holder.itemView.setOnClickListener(v ->
-                view.onItemSelected(item.getWord(), item.getDirection()));
+                view.onItemSelected(word, direction));
 
         holder.ivIcon.setOnClickListener(v -> {
-            final boolean newStarredState = !items.get(position).isFavorites();
+            final boolean newStarredState = !holder.isStarred;
 
             holder.setIcon(newStarredState);
-            view.onStarredChanged(item.getWord(), item.getDirection(), newStarredState);
-            items.get(position).setFavorites(newStarredState);
+            view.onStarredChanged(word, direction, newStarredState);
+
+            // Строки списка истории связаны с базой данных и обновятся сами после записи.
+            // Найденные переводы откреплены от неё, поэтому их избранность меняется здесь
+            if (!item.isManaged())
+                item.setFavorites(newStarredState);
         });
     }
 
     @Override
     public int getItemCount() {
-        return filteredItems.size();
+        if (searchResults != null)
+            return searchResults.size();
+
+        return items == null ? 0 : items.size();
     }
 
-    @Override
-    public Filter getFilter() {
-        if (filter == null)
-            filter = new TranslateFilter(this, items);
+    private void prefetch(int position) {
+        if (searchResults != null || items == null)
+            return;
+
+        if (position >= items.size() - items.getPageSize() / 2)
+            items.loadNextPage();
+    }
 
-        return filter;
+    private HistoryObject getItem(int position) {
+        return searchResults != null ? searchResults.get(position) : items.get(position);
     }
 
     static class WordViewHolder extends RecyclerView.ViewHolder {
@@ -92,6 +124,8 @@ class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.WordViewHolder>
         final TextView tvTrans;
         final TextView tvDirection;
 
+        boolean isStarred = false;
+
         WordViewHolder(View itemView) {
             super(itemView);
 
@@ -102,52 +136,11 @@ class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.WordViewHolder>
         }
 
         void setIcon(boolean isStarred) {
+            this.isStarred = isStarred;
             if (isStarred)
                 ivIcon.setImageResource(R.drawable.ic_star);
             else
                 ivIcon.setImageResource(R.drawable.ic_bookmark);
         }
     }
-
-    private static class TranslateFilter extends Filter {
-        private final HistoryAdapter adapter;
-        private final List<HistoryObject> originalList;
-        private final List<HistoryObject> filteredList;
-
-        private TranslateFilter(HistoryAdapter adapter, List<HistoryObject> items) {
-            super();
-            this.adapter = adapter;
-            this.originalList = items;
-            this.filteredList = new ArrayList<>();
-        }
-
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            filteredList.clear();
-            final FilterResults results = new FilterResults();
-
-            if (constraint.length() > 0) {
-                final String pattern = constraint.toString().toLowerCase().trim();
-
-                // Выбираем переводы, где введённый текст встречается в тексте, или в переводе
-                for (final HistoryObject historyObject : originalList)
-                    if (historyObject.getWord().toLowerCase().contains(pattern) ||
-                            historyObject.getTranslate().toLowerCase().contains(pattern))
-                        filteredList.add(historyObject);
-            } else
-                filteredList.addAll(originalList);
-
-            results.values = filteredList;
-            results.count = filteredList.size();
-            return results;
-        }
-
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            adapter.filteredItems.clear();
-            adapter.filteredItems.addAll((List<HistoryObject>) results.values);
-            adapter.notifyDataSetChanged();
-        }
-    }
-
 }
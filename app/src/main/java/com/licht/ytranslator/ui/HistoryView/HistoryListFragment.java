@@ -26,6 +26,7 @@ import android.widget.RelativeLayout;
 
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.HistoryList;
 import com.licht.ytranslator.data.model.HistoryObject;
 import com.licht.ytranslator.presenters.HistoryPresenter;
 import com.licht.ytranslator.ui.MainActivity;
@@ -69,6 +70,15 @@ public class HistoryListFragment extends Fragment
         super.onCreate(savedInstanceState);
         YTransApp.getAppComponent().inject(this);
         setRetainInstance(true);
+
+        // Список обновляется сам после записи в базу данных, поэтому пустота списка
+        // проверяется при каждом изменении данных адаптера
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                updateContentVisibility();
+            }
+        });
     }
 
     @Override
@@ -140,7 +150,7 @@ public class HistoryListFragment extends Fragment
 
     @Override
     public boolean onQueryTextChange(String newText) {
-        adapter.getFilter().filter(newText);
+        presenter.search(newText);
         return false;
     }
 
@@ -187,15 +197,33 @@ public class HistoryListFragment extends Fragment
     }
 
     @Override
-    public void setData(List<HistoryObject> items) {
-        if (items.size() == 0) {
+    public void setData(HistoryList items) {
+        adapter.setData(items);
+    }
+
+    @Override
+    public void showSearchResults(List<HistoryObject> items) {
+        adapter.setSearchResults(items);
+    }
+
+    @Override
+    public void hideSearchResults() {
+        adapter.setSearchResults(null);
+    }
+
+    private void updateContentVisibility() {
+        // Представление могло быть уже уничтожено (фрагмент сохраняется при смене конфигурации)
+        if (recyclerView == null)
+            return;
+
+        // Пока запрос к базе данных не выполнен, сообщение о пустом списке не показывается
+        if (adapter.isLoaded() && adapter.getItemCount() == 0) {
             noContentView.setVisibility(View.VISIBLE);
             recyclerView.setVisibility(View.GONE);
         } else {
             noContentView.setVisibility(View.GONE);
             recyclerView.setVisibility(View.VISIBLE);
         }
-        adapter.setData(items);
     }
 
     @Override
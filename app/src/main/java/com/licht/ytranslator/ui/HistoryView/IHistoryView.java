@@ -1,11 +1,14 @@
 package com.licht.ytranslator.ui.HistoryView;
 
+import com.licht.ytranslator.data.HistoryList;
 import com.licht.ytranslator.data.model.HistoryObject;
 
 import java.util.List;
 
 public interface IHistoryView {
-    void setData(List<HistoryObject> items);
+    void setData(HistoryList items);
+    void showSearchResults(List<HistoryObject> items);
+    void hideSearchResults();
     void onItemSelected(String word, String direction);
     void onStarredChanged(String word, String direction, boolean newStarredState);
 }
@@ -13,12 +13,13 @@ import android.widget.TextView;
 
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.LanguageCatalog;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Set;
 
 class LanguageListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements Filterable {
 
@@ -36,17 +37,25 @@ class LanguageListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
     // Количество языков в списке недавно использованных
     private final int recentlyUsedLanguagesCount;
 
+    // Справочник языков, по которому выполняется поиск
+    private final LanguageCatalog languageCatalog;
+
+    private final List<String> recentlyUsedLanguages;
+
     LanguageListAdapter(ISelectLanguageView view,
-                        List<String> allLanguages,
+                        LanguageCatalog languageCatalog,
                         List<String> recentlyUsedLanguages,
                         String currentSelectedLanguage) {
         this.view = view;
 
         context = YTransApp.get();
 
+        this.languageCatalog = languageCatalog;
+        this.recentlyUsedLanguages = recentlyUsedLanguages;
         recentlyUsedLanguagesCount = recentlyUsedLanguages.size();
 
-        final List<ILanguageAdapterItem> items = getFormattedItems(allLanguages, recentlyUsedLanguages);
+        final List<ILanguageAdapterItem> items =
+                getFormattedItems(languageCatalog.getSortedTitles(), recentlyUsedLanguages);
         mLanguages.addAll(items);
         mFilteredItems.addAll(items);
 
@@ -157,31 +166,22 @@ class LanguageListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
             filteredList.clear();
             final FilterResults results = new FilterResults();
 
-            // Может возникнуть ситуация, что мы уже добавили язык, который находится в "Недавнем"
-            // а теперь встречаем его во второй раз, и пытаемся добавить. Отдельно проверяем этот случай
-            // Используется именно упорядоченное множество, чтоб проводить проверку быстрее
-            final SortedSet<String> addedLanguages = new TreeSet<>();
-
             if (constraint.length() > 0) {
                 final String pattern = constraint.toString().toLowerCase().trim();
-                for (final ILanguageAdapterItem language : originalList) {
-                    if (language.getItemType() == ILanguageAdapterItem.TITLE_ITEM_TYPE)
-                        continue;
-                    // Если это был заголовок, то мы пропустили итерацию, и теперь точно знаем,
-                    // что приведение будет правильным
-
-                    //noinspection CastToConcreteClass
-                    LanguageItem item = (LanguageItem) language;
-
-                    // Если элемент удовлетворяет введенному условию, и ещё не был добавлен,
-                    // то добавляем
-                    if (item.getContent().toLowerCase().contains(pattern)
-                            && !addedLanguages.contains(item.getContent())) {
-                        addedLanguages.add(item.getContent());
-                        filteredList.add(language);
-                    }
-
-                }
+
+                // Может возникнуть ситуация, что мы уже добавили язык, который находится в "Недавнем"
+                // а теперь встречаем его во второй раз, и пытаемся добавить. Отдельно проверяем этот случай
+                final Set<String> addedLanguages = new HashSet<>();
+
+                // Сначала проверяем недавно использованные языки (их немного),
+                // а остальные языки находим по индексу справочника, не перебирая весь список
+                for (final String language : adapter.recentlyUsedLanguages)
+                    if (language.toLowerCase().contains(pattern) && addedLanguages.add(language))
+                        filteredList.add(new LanguageItem(language));
+
+                for (final String language : adapter.languageCatalog.findTitlesContaining(pattern))
+                    if (addedLanguages.add(language))
+                        filteredList.add(new LanguageItem(language));
             } else
                 filteredList.addAll(originalList);
 
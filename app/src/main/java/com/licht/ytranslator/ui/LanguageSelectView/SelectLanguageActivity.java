@@ -14,9 +14,13 @@ import android.view.Menu;
 import android.widget.EditText;
 
 import com.licht.ytranslator.R;
+import com.licht.ytranslator.YTransApp;
+import com.licht.ytranslator.data.DataManager;
 
 import java.util.ArrayList;
 
+import javax.inject.Inject;
+
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import butterknife.Unbinder;
@@ -26,11 +30,14 @@ import butterknife.Unbinder;
  */
 public class SelectLanguageActivity extends AppCompatActivity
         implements ISelectLanguageView, SearchView.OnQueryTextListener {
-    public static final String AVAILABLE_LANGUAGE_LIST = "LANGUAGE_LIST";
     public static final String SELECTED_LANGUAGE = "SELECTED_LANGUAGE";
     public static final String RECENTLY_LANGUAGE_LIST = "RECENTLY_LANGUAGE_LIST";
     public static final String RESULT_LANGUAGE = "RESULT_LANGUAGE";
 
+    // Справочник языков берётся напрямую из DataManager, чтоб не передавать список языков через Intent
+    @Inject
+    DataManager dataManager;
+
     @BindView(R.id.rv_languages_list) RecyclerView mRecyclerView;
     private Unbinder unbinder;
 
@@ -42,6 +49,7 @@ public class SelectLanguageActivity extends AppCompatActivity
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_select_language);
         unbinder = ButterKnife.bind(this);
+        YTransApp.getAppComponent().inject(this);
 
         initUI();
     }
@@ -116,7 +124,6 @@ public class SelectLanguageActivity extends AppCompatActivity
         toolbar.setTitleTextColor(ContextCompat.getColor(this, android.R.color.white));
 
         Bundle b = this.getIntent().getExtras();
-        ArrayList<String> languagesList = b.getStringArrayList(AVAILABLE_LANGUAGE_LIST);
         String currentLanguage = b.getString(SELECTED_LANGUAGE);
 
         ArrayList<String> recentlyUsedLanguages = b.getStringArrayList(RECENTLY_LANGUAGE_LIST);
@@ -124,7 +131,8 @@ public class SelectLanguageActivity extends AppCompatActivity
         mRecyclerView.setHasFixedSize(true);
         RecyclerView.LayoutManager mLayoutManager = new LinearLayoutManager(this);
         mRecyclerView.setLayoutManager(mLayoutManager);
-        mAdapter = new LanguageListAdapter(this, languagesList, recentlyUsedLanguages, currentLanguage);
+        mAdapter = new LanguageListAdapter(this, dataManager.getLanguageCatalog(),
+                recentlyUsedLanguages, currentLanguage);
         mRecyclerView.setAdapter(mAdapter);
     }
 
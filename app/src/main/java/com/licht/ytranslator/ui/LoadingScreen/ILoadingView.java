@@ -5,9 +5,4 @@ public interface ILoadingView {
      * Загрузка успешно завершена
      */
     void finishLoading();
-
-    /**
-     * Загрузка закончилась ошибкой
-     */
-    void onLoadingFailure();
 }
@@ -9,7 +9,7 @@ import com.licht.ytranslator.ui.MainActivity;
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
 import com.licht.ytranslator.presenters.LoaderPresenter;
-import com.licht.ytranslator.utils.Utils;
+import com.licht.ytranslator.utils.StartupTrace;
 
 import javax.inject.Inject;
 
@@ -20,6 +20,7 @@ public class LoadingScreenActivity extends AppCompatActivity implements ILoading
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        final long startTime = StartupTrace.begin("LoadingScreenActivity.onCreate");
 
         getWindow().getDecorView().setSystemUiVisibility(
                 View.SYSTEM_UI_FLAG_LAYOUT_STABLE
@@ -37,6 +38,7 @@ public class LoadingScreenActivity extends AppCompatActivity implements ILoading
         presenter.bindView(this);
         presenter.requestData();
         presenter.checkCache();
+        StartupTrace.end("LoadingScreenActivity.onCreate", startTime);
     }
 
     @Override
@@ -51,10 +53,4 @@ public class LoadingScreenActivity extends AppCompatActivity implements ILoading
         startActivity(intent);
         finish();
     }
-
-    @Override
-    public void onLoadingFailure() {
-        Utils.showToast(this, getString(R.string.internet_error));
-        System.exit(0);
-    }
 }
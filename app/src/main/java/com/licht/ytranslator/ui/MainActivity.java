@@ -13,6 +13,7 @@ import com.licht.ytranslator.R;
 import com.licht.ytranslator.ui.HistoryView.HistoryListFragment;
 import com.licht.ytranslator.ui.HistoryView.StarredListFragment;
 import com.licht.ytranslator.ui.TranslateView.TranslateFragment;
+import com.licht.ytranslator.utils.StartupTrace;
 
 public class MainActivity extends AppCompatActivity
         implements NavigationView.OnNavigationItemSelectedListener {
@@ -21,6 +22,7 @@ public class MainActivity extends AppCompatActivity
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        final long startTime = StartupTrace.begin("MainActivity.onCreate");
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
@@ -31,6 +33,7 @@ public class MainActivity extends AppCompatActivity
         Fragment fmt = getSupportFragmentManager().findFragmentByTag(TAG);
         if (fmt == null)
             setFragment(new TranslateFragment());
+        StartupTrace.end("MainActivity.onCreate", startTime);
     }
 
     public void setFragment(Fragment fragment) {
@@ -36,7 +36,6 @@ import com.licht.ytranslator.utils.ExtendedEditText.ExtendedEditText;
 import com.licht.ytranslator.utils.ExtendedEditText.ExtendedEditTextListener;
 import com.licht.ytranslator.utils.Utils;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -409,6 +408,7 @@ public class TranslateFragment extends Fragment implements ITranslateView, Exten
     public void onStop() {
         super.onStop();
         Utils.hideKeyboard(getActivity());
+        presenter.onStop();
     }
 
     /**
@@ -474,14 +474,10 @@ public class TranslateFragment extends Fragment implements ITranslateView, Exten
      */
     private void startActivityToSelectLanguage(final int requestCode,
                                                final String selectedLanguage) {
-        // Список языков
-        final ArrayList<String> languages = presenter.getLanguagesList();
-
         // Создаём активити для выбор языка и запускаем его
         Intent intent = new Intent(getContext(), SelectLanguageActivity.class);
         Bundle b = new Bundle();
         b.putString(SelectLanguageActivity.SELECTED_LANGUAGE, selectedLanguage);
-        b.putStringArrayList(SelectLanguageActivity.AVAILABLE_LANGUAGE_LIST, languages);
         b.putStringArrayList(SelectLanguageActivity.RECENTLY_LANGUAGE_LIST, presenter.getRecentlyUsedLanguages());
         intent.putExtras(b);
 
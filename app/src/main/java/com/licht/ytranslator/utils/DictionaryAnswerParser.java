@@ -5,20 +5,23 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.licht.ytranslator.data.model.WordObject;
 import com.licht.ytranslator.data.model.ExampleObject;
-import com.licht.ytranslator.data.model.StringWrapper;
 import com.licht.ytranslator.data.model.WordMeaningObject;
-import com.licht.ytranslator.data.sources.UtilsPreferences;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import io.realm.RealmList;
 
 /**
- * Парсер JSON ответа от Яндекс словаря
+ * Парсер JSON ответа от Яндекс словаря, разбирающий уже построенное дерево JSON.
+ *
+ * Ответы, полученные из сети, разбираются потоково с помощью {@link DictionaryStreamParser}.
+ * Этот парсер используется для сравнения производительности двух подходов
  */
 public class DictionaryAnswerParser {
 
-    private static final UtilsPreferences utilsPreferences = new UtilsPreferences();
-
-    public static RealmList<WordObject> parse(JsonObject obj) {
+    public static RealmList<WordObject> parse(JsonObject obj, DictionaryIdGenerator idGenerator) {
         if (obj == null)
             return  new RealmList<>();
 
@@ -37,7 +40,7 @@ public class DictionaryAnswerParser {
             RealmList<WordMeaningObject> wordMeaningObjects = extractTranslating(tr);
 
             // Realm не поддерживает автоинкрементальные идентификаторы, поэтому генерируем их вручную
-            WordObject d = new WordObject(utilsPreferences.generateDictionaryNumber(), text, transcription, pos, wordMeaningObjects);
+            WordObject d = new WordObject(idGenerator.generateDictionaryNumber(), text, transcription, pos, wordMeaningObjects);
             dictionaries.add(d);
         }
 
@@ -49,16 +52,16 @@ public class DictionaryAnswerParser {
         for (int j = 0; j < tr.size(); ++j) {
             JsonObject el1 = tr.get(j).getAsJsonObject();
 
-            RealmList<StringWrapper> synList = new RealmList<>();
+            List<String> synList = new ArrayList<>();
 
             JsonArray syn = el1.getAsJsonArray("syn");
             if (syn != null)
                 for (JsonElement jsonElement : syn) {
                     String s = jsonElement.getAsJsonObject().get("text").getAsString();
-                    synList.add(new StringWrapper(s));
+                    synList.add(s);
                 }
 
-            RealmList<StringWrapper> meanings = new RealmList<>();
+            List<String> meanings = new ArrayList<>();
 
             final String text = el1.get("text").getAsString();
             final String pos = el1.get("pos").getAsString();
@@ -73,10 +76,10 @@ public class DictionaryAnswerParser {
                     final String t = obj.get("text").getAsString();
                     final JsonArray tr1 = obj.getAsJsonArray("tr");
 
-                    final RealmList<StringWrapper> translates1 = new RealmList<>();
+                    final List<String> translates1 = new ArrayList<>();
                     for (int k1 = 0; k1 < tr1.size(); ++k1)
-                        translates1.add(new StringWrapper(tr1.get(k1).getAsJsonObject().get("text").getAsString()));
-                    exampleObjects.add(new ExampleObject(new StringWrapper(t), translates1));
+                        translates1.add(tr1.get(k1).getAsJsonObject().get("text").getAsString());
+                    exampleObjects.add(new ExampleObject(t, translates1));
 
                 }
 
@@ -86,7 +89,7 @@ public class DictionaryAnswerParser {
             if (arr != null)
                 for (int k = 0; k < arr.size(); ++k) {
                     String s = arr.get(k).getAsJsonObject().get("text").getAsString();
-                    meanings.add(new StringWrapper(s));
+                    meanings.add(s);
                 }
 
 
@@ -0,0 +1,185 @@
+package com.licht.ytranslator.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.licht.ytranslator.data.model.ExampleObject;
+import com.licht.ytranslator.data.model.WordMeaningObject;
+import com.licht.ytranslator.data.model.WordObject;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.realm.RealmList;
+
+/**
+ * Потоковый парсер JSON ответа от Яндекс словаря (метод lookup).
+ *
+ * В отличие от {@link DictionaryAnswerParser}, не строит промежуточное дерево JsonObject/JsonArray,
+ * а читает ответ по токенам и сразу создаёт объекты модели.
+ * Неизвестные поля ответа пропускаются.
+ */
+public class DictionaryStreamParser {
+
+    /**
+     * Разбирает ответ Яндекс Словаря
+     *
+     * @param reader      Поток токенов ответа
+     * @param idGenerator Источник идентификаторов для словарных статей
+     * @return Список толкований слова
+     */
+    public static RealmList<WordObject> parse(JsonReader reader,
+                                              DictionaryIdGenerator idGenerator) throws IOException {
+        final RealmList<WordObject> dictionaries = new RealmList<>();
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return dictionaries;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("def".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext())
+                    dictionaries.add(readDefinition(reader, idGenerator));
+                reader.endArray();
+            } else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return dictionaries;
+    }
+
+    private static WordObject readDefinition(JsonReader reader,
+                                             DictionaryIdGenerator idGenerator) throws IOException {
+        String text = "";
+        String transcription = "";
+        String pos = "";
+        RealmList<WordMeaningObject> wordMeaningObjects = new RealmList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "text":
+                    text = reader.nextString();
+                    break;
+                case "ts":
+                    transcription = reader.nextString();
+                    break;
+                case "pos":
+                    pos = reader.nextString();
+                    break;
+                case "tr":
+                    wordMeaningObjects = readMeanings(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Realm не поддерживает автоинкрементальные идентификаторы, поэтому генерируем их вручную
+        return new WordObject(idGenerator.generateDictionaryNumber(), text, transcription, pos, wordMeaningObjects);
+    }
+
+    private static RealmList<WordMeaningObject> readMeanings(JsonReader reader) throws IOException {
+        final RealmList<WordMeaningObject> wordMeaningObjects = new RealmList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String text = "";
+            String pos = "";
+            List<String> synonyms = new ArrayList<>();
+            List<String> meanings = new ArrayList<>();
+            RealmList<ExampleObject> examples = new RealmList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "text":
+                        text = reader.nextString();
+                        break;
+                    case "pos":
+                        pos = reader.nextString();
+                        break;
+                    case "syn":
+                        synonyms = readTexts(reader);
+                        break;
+                    case "mean":
+                        meanings = readTexts(reader);
+                        break;
+                    case "ex":
+                        examples = readExamples(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            wordMeaningObjects.add(new WordMeaningObject(synonyms, meanings, examples, text, pos));
+        }
+        reader.endArray();
+
+        return wordMeaningObjects;
+    }
+
+    private static RealmList<ExampleObject> readExamples(JsonReader reader) throws IOException {
+        final RealmList<ExampleObject> examples = new RealmList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String phrase = "";
+            List<String> translates = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "text":
+                        phrase = reader.nextString();
+                        break;
+                    case "tr":
+                        translates = readTexts(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            examples.add(new ExampleObject(phrase, translates));
+        }
+        reader.endArray();
+
+        return examples;
+    }
+
+    /**
+     * Читает массив объектов вида {"text": "..."}, оставляя только их текст
+     */
+    private static List<String> readTexts(JsonReader reader) throws IOException {
+        final List<String> texts = new ArrayList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String text = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("text".equals(reader.nextName()))
+                    text = reader.nextString();
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+
+            if (text != null)
+                texts.add(text);
+        }
+        reader.endArray();
+
+        return texts;
+    }
+}
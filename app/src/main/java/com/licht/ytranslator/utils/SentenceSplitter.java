@@ -0,0 +1,119 @@
+package com.licht.ytranslator.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбивает текст на предложения, чтоб переводить и кэшировать их по отдельности.
+ *
+ * Предложение заканчивается знаком конца предложения, за которым следует пробел,
+ * или переводом строки. Пробелы вокруг предложения хранятся отдельно от него, поэтому
+ * из переводов предложений собирается текст с исходным форматированием.
+ */
+public final class SentenceSplitter {
+
+    private SentenceSplitter() {
+    }
+
+    /**
+     * @param text Исходный текст
+     * @return Предложения текста. Склеенные вместе (с пробелами), дают исходный текст
+     */
+    public static List<Segment> split(String text) {
+        final List<Segment> segments = new ArrayList<>();
+
+        int start = 0;
+        final int length = text.length();
+        for (int i = 0; i < length; ++i) {
+            final char c = text.charAt(i);
+            final boolean isLineEnd = c == '\n';
+            final boolean isSentenceEnd = isSentenceEnd(c) &&
+                    (i + 1 == length || Character.isWhitespace(text.charAt(i + 1)));
+            if (!isLineEnd && !isSentenceEnd)
+                continue;
+
+            // Пробелы после конца предложения относятся к нему
+            int end = i + 1;
+            while (end < length && Character.isWhitespace(text.charAt(end)))
+                ++end;
+
+            segments.add(Segment.create(text.substring(start, end)));
+            start = end;
+            i = end - 1;
+        }
+
+        if (start < length)
+            segments.add(Segment.create(text.substring(start)));
+
+        return segments;
+    }
+
+    /**
+     * @return Количество предложений, которые нужно переводить (не состоящих из одних пробелов)
+     */
+    public static int countTranslatable(List<Segment> segments) {
+        int count = 0;
+        for (Segment segment : segments)
+            if (segment.isTranslatable())
+                ++count;
+        return count;
+    }
+
+    /**
+     * Собирает перевод текста из переводов его предложений
+     *
+     * @param segments     Предложения исходного текста
+     * @param translations Переводы предложений
+     * @return Перевод текста, или null, если перевод какого-то из предложений отсутствует
+     */
+    public static String join(List<Segment> segments, Map<String, String> translations) {
+        final StringBuilder builder = new StringBuilder();
+        for (Segment segment : segments) {
+            builder.append(segment.leading);
+            if (segment.isTranslatable()) {
+                final String translation = translations.get(segment.text);
+                if (translation == null)
+                    return null;
+                builder.append(translation);
+            }
+            builder.append(segment.trailing);
+        }
+        return builder.toString();
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '…';
+    }
+
+    /**
+     * Предложение текста: сам текст предложения и окружающие его пробелы
+     */
+    public static class Segment {
+        public final String leading;
+        public final String text;
+        public final String trailing;
+
+        Segment(String leading, String text, String trailing) {
+            this.leading = leading;
+            this.text = text;
+            this.trailing = trailing;
+        }
+
+        static Segment create(String source) {
+            int begin = 0;
+            int end = source.length();
+            while (begin < end && Character.isWhitespace(source.charAt(begin)))
+                ++begin;
+            while (end > begin && Character.isWhitespace(source.charAt(end - 1)))
+                --end;
+
+            return new Segment(source.substring(0, begin), source.substring(begin, end),
+                    source.substring(end));
+        }
+
+        public boolean isTranslatable() {
+            return text.length() > 0;
+        }
+    }
+}
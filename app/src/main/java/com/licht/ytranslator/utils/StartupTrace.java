@@ -0,0 +1,66 @@
+package com.licht.ytranslator.utils;
+
+import android.os.SystemClock;
+import android.support.v4.os.TraceCompat;
+import android.util.Log;
+
+/**
+ * Отмечает этапы запуска приложения.
+ *
+ * Каждый этап - секция systrace (видна в systrace и профилировщике Android Studio)
+ * и строка в логе с длительностью этапа и временем его окончания от начала запуска:
+ *
+ *     adb logcat -s StartupTrace
+ *
+ * Секция должна начинаться и заканчиваться в одном потоке, вложенные секции закрываются
+ * в обратном порядке.
+ */
+public final class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    // Время начала запуска (создания приложения)
+    private static volatile long sStartUptimeMs = SystemClock.uptimeMillis();
+
+    private StartupTrace() {
+    }
+
+    /**
+     * Отмечает начало запуска. Вызывается первым при создании приложения
+     */
+    public static void start() {
+        sStartUptimeMs = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Начинает этап запуска
+     *
+     * @param section Название этапа
+     * @return Время начала этапа, передаётся в {@link #end(String, long)}
+     */
+    public static long begin(String section) {
+        TraceCompat.beginSection(section);
+        return SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Заканчивает этап запуска, начатый в этом же потоке
+     *
+     * @param section   Название этапа
+     * @param startTime Время начала этапа, полученное из {@link #begin(String)}
+     */
+    public static void end(String section, long startTime) {
+        TraceCompat.endSection();
+
+        final long now = SystemClock.uptimeMillis();
+        Log.i(TAG, section + ": " + (now - startTime) + " ms (at " + (now - sStartUptimeMs) + " ms)");
+    }
+
+    /**
+     * Отмечает событие запуска без длительности
+     *
+     * @param event Название события
+     */
+    public static void mark(String event) {
+        Log.i(TAG, event + " (at " + (SystemClock.uptimeMillis() - sStartUptimeMs) + " ms)");
+    }
+}
@@ -9,7 +9,6 @@ import android.widget.Toast;
 import com.licht.ytranslator.R;
 import com.licht.ytranslator.YTransApp;
 import com.licht.ytranslator.data.model.ExampleObject;
-import com.licht.ytranslator.data.model.StringWrapper;
 import com.licht.ytranslator.data.model.WordMeaningObject;
 
 public class Utils {
@@ -28,16 +27,16 @@ public class Utils {
 
         if (object.getMeanings().size() > 0) {
             stringBuilder.append(YTransApp.get().getString(R.string.meanings)).append(": ");
-            for (StringWrapper s : object.getMeanings())
-                stringBuilder.append(s.getContent()).append(", ");
+            for (String s : object.getMeanings())
+                stringBuilder.append(s).append(", ");
             stringBuilder.delete(stringBuilder.length() - 2, stringBuilder.length());
             stringBuilder.append("\n");
         }
 
         if (object.getSynonimes().size() > 0) {
             stringBuilder.append(YTransApp.get().getString(R.string.synonyms)).append(": ");
-            for (StringWrapper s : object.getSynonimes())
-                stringBuilder.append(s.getContent()).append(", ");
+            for (String s : object.getSynonimes())
+                stringBuilder.append(s).append(", ");
             stringBuilder.delete(stringBuilder.length() - 2, stringBuilder.length());
             stringBuilder.append("\n");
         }
@@ -45,11 +44,11 @@ public class Utils {
         if (object.getExampleObjects().size() > 0) {
             stringBuilder.append(YTransApp.get().getString(R.string.usage_examples)).append("\n");
             for (ExampleObject example : object.getExampleObjects()) {
-                stringBuilder.append(example.getPhrase().getContent());
+                stringBuilder.append(example.getPhrase());
                 if (example.getTranslates().size() > 0) {
                     stringBuilder.append(" - ");
-                    for (StringWrapper trans: example.getTranslates())
-                        stringBuilder.append(trans.getContent()).append("; ");
+                    for (String trans: example.getTranslates())
+                        stringBuilder.append(trans).append("; ");
                 }
                 stringBuilder.append("\n");
             }
@@ -0,0 +1,16 @@
+package com.licht.ytranslator;
+
+import android.app.Application;
+
+import com.licht.ytranslator.di.component.AppComponent;
+
+/**
+ * Инструменты разработчика в release-сборке не подключаются (см. src/debug)
+ */
+final class DebugTools {
+    private DebugTools() {
+    }
+
+    static void initialize(Application application, AppComponent appComponent) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.licht.ytranslator.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.licht.ytranslator.data.model.WordObject;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
+import com.licht.ytranslator.utils.DictionaryAnswerParser;
+import com.licht.ytranslator.utils.DictionaryStreamParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import io.realm.RealmList;
+
+/**
+ * Сравнивает разбор ответа Яндекс Словаря через дерево Gson ({@link DictionaryAnswerParser})
+ * и потоковый разбор ({@link DictionaryStreamParser}).
+ *
+ * Оба парсера читают ответ из Reader, как это происходит при получении ответа из сети.
+ * Для оценки выделения памяти запускать с профайлером: ./gradlew :benchmarks:jmh -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DictionaryParserBenchmark {
+
+    // Количество толкований слова в ответе
+    @Param({"1", "3", "10", "30"})
+    public int definitionsCount;
+
+    private String payload;
+
+    private final DictionaryIdGenerator idGenerator = new DictionaryIdGenerator() {
+        private long number = 0;
+
+        @Override
+        public long generateDictionaryNumber() {
+            return ++number;
+        }
+    };
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = Payloads.dictionaryLookup(definitionsCount);
+    }
+
+    @Benchmark
+    public RealmList<WordObject> treeParser() {
+        final JsonObject tree = new JsonParser().parse(new StringReader(payload)).getAsJsonObject();
+        return DictionaryAnswerParser.parse(tree, idGenerator);
+    }
+
+    @Benchmark
+    public RealmList<WordObject> streamParser() throws IOException {
+        return DictionaryStreamParser.parse(new JsonReader(new StringReader(payload)), idGenerator);
+    }
+}
@@ -0,0 +1,64 @@
+package com.licht.ytranslator.benchmarks;
+
+import com.licht.ytranslator.data.HistoryFilter;
+import com.licht.ytranslator.data.model.HistoryObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по истории переводов, который выполняет фильтр списка истории при вводе текста
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HistoryFilterBenchmark {
+
+    private static final String[] WORDS = {"time", "house", "water", "light", "friend", "morning",
+            "language", "window", "weather", "question", "answer", "street", "evening", "letter"};
+    private static final String[] TRANSLATES = {"время", "дом", "вода", "свет", "друг", "утро",
+            "язык", "окно", "погода", "вопрос", "ответ", "улица", "вечер", "письмо"};
+
+    // Количество переводов в истории
+    @Param({"100", "1000", "10000"})
+    public int historySize;
+
+    // Введённый текст: пустой (весь список), частый, редкий и отсутствующий в истории
+    @Param({"", "ti", "Погода 42", "xyz"})
+    public String constraint;
+
+    private List<HistoryObject> history;
+
+    private final List<HistoryObject> result = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; ++i) {
+            final int index = random.nextInt(WORDS.length);
+            final String word = WORDS[index] + " " + i;
+            final String translate = TRANSLATES[index] + " " + i;
+            history.add(new HistoryObject(word, translate, "en-ru", new Date(i * 1000L)));
+        }
+    }
+
+    @Benchmark
+    public List<HistoryObject> filter() {
+        result.clear();
+        HistoryFilter.filter(history, constraint, result);
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package com.licht.ytranslator.benchmarks;
+
+import com.licht.ytranslator.data.sources.BlockIdGenerator;
+import com.licht.ytranslator.data.sources.DictionaryIdGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выдача идентификаторов словарных статей несколькими потоками одновременно,
+ * как при параллельном разборе ответов словаря.
+ *
+ * Сравнивается сохранение каждого идентификатора под блокировкой (как было раньше)
+ * и выдача блоками ({@link BlockIdGenerator}). Запись в хранилище имитируется
+ * паузой {@code writeCostNs} - на устройстве запись настроек значительно дороже
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class IdGeneratorBenchmark {
+
+    // Стоимость одной записи в хранилище
+    @Param({"0", "1000"})
+    public long writeCostNs;
+
+    @Param({"256"})
+    public int blockSize;
+
+    private DictionaryIdGenerator perIdGenerator;
+    private DictionaryIdGenerator blockGenerator;
+
+    @Setup
+    public void setUp() {
+        perIdGenerator = new PerIdGenerator(new SlowStorage(writeCostNs));
+        blockGenerator = new BlockIdGenerator(new SlowStorage(writeCostNs), blockSize);
+    }
+
+    @Benchmark
+    public long perIdWrite() {
+        return perIdGenerator.generateDictionaryNumber();
+    }
+
+    @Benchmark
+    public long blockReservation() {
+        return blockGenerator.generateDictionaryNumber();
+    }
+
+    /**
+     * Прежняя реализация: чтение и запись хранилища под блокировкой на каждый идентификатор
+     */
+    private static class PerIdGenerator implements DictionaryIdGenerator {
+        private final BlockIdGenerator.Storage storage;
+
+        PerIdGenerator(BlockIdGenerator.Storage storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public synchronized long generateDictionaryNumber() {
+            final long newValue = storage.loadHighWaterMark() + 1;
+            storage.saveHighWaterMark(newValue);
+            return newValue;
+        }
+    }
+
+    private static class SlowStorage implements BlockIdGenerator.Storage {
+        private final long writeCostNs;
+        private volatile long value = 0;
+
+        SlowStorage(long writeCostNs) {
+            this.writeCostNs = writeCostNs;
+        }
+
+        @Override
+        public long loadHighWaterMark() {
+            return value;
+        }
+
+        @Override
+        public void saveHighWaterMark(long highWaterMark) {
+            value = highWaterMark;
+            final long deadline = System.nanoTime() + writeCostNs;
+            while (System.nanoTime() < deadline) {
+                // Имитация записи на диск
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.licht.ytranslator.benchmarks;
+
+import com.licht.ytranslator.data.LanguageCatalog;
+import com.licht.ytranslator.data.model.Localization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск языков, которым пользуется DataManager: название по коду, код по названию
+ * и поиск названий по подстроке (фильтр экрана выбора языка).
+ *
+ * Для сравнения измеряется и линейный перебор списка локализаций,
+ * которым эти операции выполнялись до появления {@link LanguageCatalog}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LanguageLookupBenchmark {
+
+    // Коды и названия из конца списка - худший случай для перебора
+    private static final String CODE = "zh";
+    private static final String TITLE = "Японский";
+    private static final String PATTERN = "ск";
+
+    private List<Localization> localizations;
+    private LanguageCatalog catalog;
+
+    @Setup
+    public void setUp() throws IOException {
+        localizations = Payloads.languages();
+        catalog = new LanguageCatalog(localizations);
+    }
+
+    @Benchmark
+    public String titleByCode() {
+        return catalog.getTitle(CODE);
+    }
+
+    @Benchmark
+    public String titleByCodeLinear() {
+        for (Localization localization : localizations)
+            if (localization.getLanguageSymbol().equals(CODE))
+                return localization.getLanguageTitle();
+        return "";
+    }
+
+    @Benchmark
+    public String codeByTitle() {
+        return catalog.getCode(TITLE);
+    }
+
+    @Benchmark
+    public String codeByTitleLinear() {
+        for (Localization localization : localizations)
+            if (localization.getLanguageTitle().equals(TITLE))
+                return localization.getLanguageSymbol();
+        return "";
+    }
+
+    @Benchmark
+    public List<String> titlesContaining() {
+        return catalog.findTitlesContaining(PATTERN);
+    }
+
+    @Benchmark
+    public List<String> titlesContainingLinear() {
+        final List<String> result = new ArrayList<>();
+        for (String title : catalog.getSortedTitles())
+            if (title.toLowerCase().contains(PATTERN))
+                result.add(title);
+        return result;
+    }
+
+    @Benchmark
+    public LanguageCatalog buildCatalog() {
+        return new LanguageCatalog(localizations);
+    }
+}
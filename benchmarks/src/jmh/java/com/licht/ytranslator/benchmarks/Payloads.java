@@ -0,0 +1,69 @@
+package com.licht.ytranslator.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.licht.ytranslator.data.model.Localization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Записанные ответы API, используемые в бенчмарках
+ */
+final class Payloads {
+    private static final String DICTIONARY_LOOKUP = "/payloads/lookup_en_ru_time.json";
+    private static final String LANGUAGES = "/payloads/langs_ru.json";
+
+    private Payloads() {
+    }
+
+    /**
+     * Строит ответ Яндекс Словаря с указанным количеством толкований.
+     * Толкования берутся из записанного ответа по кругу
+     *
+     * @param definitionsCount Количество толкований (элементов массива def)
+     * @return Текст ответа
+     */
+    static String dictionaryLookup(int definitionsCount) throws IOException {
+        final JsonObject recorded = read(DICTIONARY_LOOKUP);
+        final JsonArray recordedDefinitions = recorded.getAsJsonArray("def");
+
+        final JsonArray definitions = new JsonArray();
+        for (int i = 0; i < definitionsCount; ++i)
+            definitions.add(recordedDefinitions.get(i % recordedDefinitions.size()));
+
+        final JsonObject result = new JsonObject();
+        result.add("head", new JsonObject());
+        result.add("def", definitions);
+        return result.toString();
+    }
+
+    /**
+     * Строит список локализаций языков из записанного ответа метода getLangs (локализация UI "ru")
+     *
+     * @return Локализации языков в порядке ответа
+     */
+    static List<Localization> languages() throws IOException {
+        final JsonObject langs = read(LANGUAGES).getAsJsonObject("langs");
+
+        final List<Localization> localizations = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : langs.entrySet())
+            localizations.add(new Localization("ru", entry.getKey(), entry.getValue().getAsString()));
+        return localizations;
+    }
+
+    private static JsonObject read(String resource) throws IOException {
+        try (InputStream stream = Payloads.class.getResourceAsStream(resource);
+             Reader reader = new InputStreamReader(stream, Charset.forName("UTF-8"))) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        }
+    }
+}
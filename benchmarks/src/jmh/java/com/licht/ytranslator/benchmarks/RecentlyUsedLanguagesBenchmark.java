@@ -0,0 +1,91 @@
+package com.licht.ytranslator.benchmarks;
+
+import com.licht.ytranslator.data.sources.KeyValueStore;
+import com.licht.ytranslator.data.sources.TranslatePreferences;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обновление списка недавно использованных языков при выборе языка перевода.
+ * Настройки хранятся в памяти, поэтому измеряется только логика обновления и сериализации списка
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecentlyUsedLanguagesBenchmark {
+
+    private static final String[] LANGUAGES = {"Английский", "Русский", "Немецкий", "Французский",
+            "Испанский", "Итальянский", "Японский", "Китайский"};
+
+    private TranslatePreferences preferences;
+
+    private int languageIndex = 0;
+
+    @Setup
+    public void setUp() {
+        preferences = new TranslatePreferences(new MemoryStorage());
+        for (String language : LANGUAGES)
+            preferences.updateRecentlyUsedLanguage(language);
+    }
+
+    /**
+     * Выбор языка, который уже есть в списке недавно использованных
+     */
+    @Benchmark
+    public void selectRecentLanguage() {
+        preferences.updateRecentlyUsedLanguage(LANGUAGES[LANGUAGES.length - 1 - (languageIndex++ % 3)]);
+    }
+
+    /**
+     * Выбор языка по кругу из списка, длиннее списка недавно использованных:
+     * часть выборов вытесняет самый старый язык
+     */
+    @Benchmark
+    public void selectLanguagesInTurn() {
+        preferences.updateRecentlyUsedLanguage(LANGUAGES[languageIndex++ % LANGUAGES.length]);
+    }
+
+    private static class MemoryStorage implements KeyValueStore {
+        private final Map<String, String> values = new HashMap<>();
+
+        @Override
+        public String getString(String key, String defaultValue) {
+            final String value = values.get(key);
+            return value == null ? defaultValue : value;
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public void commit(Map<String, String> changes) {
+            for (Map.Entry<String, String> entry : changes.entrySet()) {
+                if (entry.getValue() == null)
+                    values.remove(entry.getKey());
+                else
+                    values.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public void commitSync(Map<String, String> changes) {
+            commit(changes);
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}